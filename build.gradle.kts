@@ -65,9 +65,44 @@ dependencies {
 
 tasks.named<Test>("test") {
     useJUnitPlatform()
+    // Storage tests write tools/ relative to the working directory, as the application does
+    val testWorkDir = layout.buildDirectory.dir("test-work").get().asFile
+    workingDir = testWorkDir
+    doFirst {
+        testWorkDir.mkdirs()
+    }
     finalizedBy(tasks.jacocoTestReport) // Generate coverage report after tests
 }
 
+// ============================================
+// Fetch Pipeline Benchmark
+// ============================================
+// Runs JiraFetchBenchmark against the embedded Jira stand-in; -Pbenchmark.* properties are passed through.
+// The working directory is a scratch folder because the fetch services write under tools/.
+val jiraFetchBenchmark by tasks.registering(Test::class) {
+    description = "Measures fetch pipeline throughput (issues/sec) against a local Jira stand-in"
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform()
+    filter {
+        includeTestsMatching("*JiraFetchBenchmark")
+    }
+    val benchmarkDir = layout.buildDirectory.dir("jira-benchmark").get().asFile
+    workingDir = benchmarkDir
+    systemProperty("benchmark.enabled", "true")
+    project.properties
+        .filterKeys { it.startsWith("benchmark.") }
+        .forEach { (key, value) -> systemProperty(key, value.toString()) }
+    testLogging {
+        showStandardStreams = true
+    }
+    outputs.upToDateWhen { false }
+    doFirst {
+        benchmarkDir.mkdirs()
+    }
+}
+
 // ============================================
 // Checkstyle Configuration
 // ============================================
@@ -0,0 +1,21 @@
+package com.example.metrics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * HTTP caching of API responses, separate from {@code spring.web.resources.cache} for static assets.
+ *
+ * @param cacheControl {@code Cache-Control} of responses tagged with a {@link DatasetETag}; the default lets
+ *                     clients keep a response but revalidate it on every use
+ * @param gzip         whether {@link SerializedResponses} also keeps a gzip-compressed copy of each response
+ * @param gzipMinSize  smallest response worth compressing
+ */
+@ConfigurationProperties(prefix = "api.response")
+public record ApiResponseProperties(
+        @DefaultValue("no-cache") String cacheControl,
+        @DefaultValue("true") boolean gzip,
+        @DefaultValue("2KB") DataSize gzipMinSize
+) {
+}
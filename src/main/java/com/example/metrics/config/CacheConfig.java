@@ -1,25 +1,92 @@
 package com.example.metrics.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+/**
+ * Caffeine caches, each configured under {@code cache.specs.<name>} in application.yml
+ * (see {@link CacheSpecProperties}). Caches that record stats are bound by Spring Boot to Micrometer as
+ * {@code cache.gets{result=hit|miss}}, {@code cache.puts}, {@code cache.evictions}, {@code cache.eviction.weight}
+ * and {@code cache.size}, and all of them are listed by the {@code caches} actuator endpoint.
+ * <p>
+ * The analysis caches are keyed by dataset generation (see {@link DatasetKeyGenerator}), so they need
+ * no expiry: only a weight bound that lets entries of superseded generations age out. With {@code disk: true}
+ * they are also kept in a {@link DiskCache}, which survives restarts.
+ */
+@Slf4j
 @Configuration
 @EnableCaching(proxyTargetClass = false)
 public class CacheConfig {
+
+    public static final String SPRINT_SUMMARIES = "sprintSummaries";
+    public static final String SPRINT_ISSUES = "sprintIssues";
+    public static final String FIX_VERSION_SUMMARIES = "fixVersionSummaries";
+    public static final String FIX_VERSION_ISSUES = "fixVersionIssues";
+    public static final String RESPONSES = "responses";
+
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCacheNames(List.of("sprintMetrics", "qaTrend"));
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMinutes(10))
-                .maximumSize(100));
+    public CacheManager cacheManager(CacheSpecProperties properties, DatasetKeyGenerator keyGenerator,
+                                     ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        Set<String> diskCaches = properties.specs().entrySet().stream()
+                .filter(spec -> spec.getValue().disk())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        DiskCache diskCache = diskCaches.isEmpty() ? null : new DiskCache(properties.disk().directory(),
+                properties.disk().maximumSize().toBytes(), objectMapper);
+        if (diskCache != null) {
+            Gauge.builder("cache.disk.size", diskCache, DiskCache::totalBytes)
+                    .description("Bytes used by the disk tier of the result caches")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                return diskCaches.contains(name)
+                        ? new TieredCaffeineCache(name, cache, diskCache)
+                        : new RefreshingCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        // No dynamic caches: a name missing from the configuration is an error, not an unbounded cache
+        cacheManager.setCacheNames(List.of());
+        for (Map.Entry<String, CacheSpecProperties.Spec> spec : properties.specs().entrySet()) {
+            cacheManager.registerCustomCache(spec.getKey(), build(spec.getValue(), keyGenerator));
+            log.info("Cache {}: {}", spec.getKey(), spec.getValue());
+        }
         return cacheManager;
     }
+
+    private static Cache<Object, Object> build(CacheSpecProperties.Spec spec, DatasetKeyGenerator keyGenerator) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder();
+        if (spec.maximumWeight() != null) {
+            builder.maximumWeight(spec.maximumWeight().toBytes()).weigher(new EstimatedSizeWeigher());
+        } else if (spec.maximumSize() != null) {
+            builder.maximumSize(spec.maximumSize());
+        }
+        if (spec.expireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.expireAfterWrite());
+        }
+        if (spec.recordStats()) {
+            builder.recordStats();
+        }
+        if (spec.refreshAfterWrite() != null) {
+            builder.refreshAfterWrite(spec.refreshAfterWrite());
+            return builder.build(new DatasetRefreshLoader(keyGenerator));
+        }
+        return builder.build();
+    }
 }
@@ -0,0 +1,64 @@
+package com.example.metrics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Caffeine caches and their settings, one entry per cache name.
+ * Caches not listed here do not exist; asking for one fails instead of silently creating an unbounded cache.
+ *
+ * @param specs settings per cache name
+ * @param disk  second-level store on disk for caches with {@code disk: true}
+ */
+@ConfigurationProperties(prefix = "cache")
+public record CacheSpecProperties(
+        @DefaultValue Map<String, Spec> specs,
+        @DefaultValue Disk disk
+) {
+
+    /**
+     * Disk tier behind the in-memory caches. It keeps results computed for a sprint database generation
+     * across restarts; the least recently used entries are deleted once it outgrows its budget.
+     *
+     * @param directory   where entries are stored, one subdirectory per cache
+     * @param maximumSize disk budget for all caches together
+     */
+    public record Disk(
+            @DefaultValue("tools/.cache") Path directory,
+            @DefaultValue("256MB") DataSize maximumSize
+    ) {
+    }
+
+    /**
+     * Settings of one cache. Set at most one of {@code maximumWeight} and {@code maximumSize}.
+     *
+     * @param maximumWeight     bound on the estimated heap size of all entries (e.g. 32MB)
+     * @param maximumSize       bound on the number of entries
+     * @param expireAfterWrite  drop entries this long after they were computed
+     * @param refreshAfterWrite recompute entries in the background once they are this old, serving the old
+     *                          value meanwhile; entries of a superseded dataset generation are left as they are
+     * @param recordStats       record hits, misses, loads and evictions for the cache metrics
+     * @param disk              also keep entries in the disk tier; only results keyed by sprint database
+     *                          generation are stored there
+     */
+    public record Spec(
+            DataSize maximumWeight,
+            Long maximumSize,
+            Duration expireAfterWrite,
+            Duration refreshAfterWrite,
+            @DefaultValue("true") boolean recordStats,
+            @DefaultValue("false") boolean disk
+    ) {
+
+        public Spec {
+            if (maximumWeight != null && maximumSize != null) {
+                throw new IllegalArgumentException("Set either maximum-weight or maximum-size, not both");
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.metrics.config;
+
+import com.example.metrics.service.datasource.DatasetSnapshot;
+import com.example.metrics.service.datasource.DatasetWarmer;
+import com.example.metrics.service.datasource.JiraDataSourceManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes, for a new generation, every cached result that is cached for the generation it replaces,
+ * i.e. the summaries and issue lists the UI is currently looking at. Requests keep getting the previous
+ * generation's results until the new ones are in the cache.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatasetCacheWarmer implements DatasetWarmer {
+
+    private final CacheManager cacheManager;
+
+    @Override
+    public void warm(DatasetSnapshot previous, DatasetSnapshot next) {
+        String from = JiraDataSourceManager.databaseVersion(previous.getGeneration());
+        String to = JiraDataSourceManager.databaseVersion(next.getGeneration());
+        int warmed = 0;
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache == null
+                    || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> entries)) {
+                continue;
+            }
+            List<DatasetKeyGenerator.Key> hot = new ArrayList<>();
+            for (Object key : entries.asMap().keySet()) {
+                if (key instanceof DatasetKeyGenerator.Key datasetKey && datasetKey.datasetVersion().equals(from)) {
+                    hot.add(datasetKey.withDatasetVersion(to));
+                }
+            }
+            for (DatasetKeyGenerator.Key key : hot) {
+                if (entries.asMap().containsKey(key)) {
+                    continue;
+                }
+                try {
+                    cache.put(key, key.invoke());
+                    warmed++;
+                } catch (Exception e) {
+                    log.warn("Failed to warm {} {}: {}", name, key, e.getMessage());
+                }
+            }
+        }
+        log.info("Warmed {} cached results for generation {}", warmed, next.getGeneration());
+    }
+}
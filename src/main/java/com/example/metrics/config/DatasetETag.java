@@ -0,0 +1,32 @@
+package com.example.metrics.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks GET endpoints whose response only depends on the dataset version and the request, so that
+ * {@link DatasetETagInterceptor} can tag them and answer {@code If-None-Match} with 304 Not Modified
+ * before the handler runs.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DatasetETag {
+
+    /**
+     * What the response is computed from.
+     */
+    Source value() default Source.DATASET;
+
+    enum Source {
+        /**
+         * The data served to the request: the pinned sprint database generation, or the file-based exports.
+         */
+        DATASET,
+        /**
+         * The sprint database file as last written, which may be ahead of the generation being served.
+         */
+        DATABASE_FILE
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.metrics.config;
+
+import com.example.metrics.service.MetricDefinitions;
+import com.example.metrics.service.datasource.JiraDataSourceManager;
+import com.example.metrics.service.storage.SprintDatabaseStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Strong ETags for {@link DatasetETag} endpoints: the dataset version, the {@link MetricDefinitions#VERSION}
+ * and a hash of the path and query parameters. A GET whose {@code If-None-Match} matches is answered with
+ * 304 Not Modified before the handler runs, so nothing is computed or serialized.
+ * <p>
+ * Runs inside {@link DatasetSnapshotFilter}, so the version is that of the snapshot the handler would read.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatasetETagInterceptor implements HandlerInterceptor {
+
+    // File-based export versions start over on every restart, unlike sprint database generations
+    private static final String INSTANCE = Long.toString(System.currentTimeMillis(), 36);
+
+    private final JiraDataSourceManager dataSourceManager;
+    private final SprintDatabaseStore databaseStore;
+    private final ApiResponseProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        DatasetETag tag = handlerMethod.getMethodAnnotation(DatasetETag.class);
+        if (tag == null) {
+            tag = handlerMethod.getBeanType().getAnnotation(DatasetETag.class);
+        }
+        if (tag == null) {
+            return true;
+        }
+        String version;
+        try {
+            version = version(tag.value());
+        } catch (IOException | IllegalStateException e) {
+            // Left untagged; the handler reports the error
+            log.debug("No ETag for {}: {}", request.getRequestURI(), e.getMessage());
+            return true;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, properties.cacheControl());
+        String etag = "\"" + version + "-m" + MetricDefinitions.VERSION + "-" + hash(request) + "\"";
+        if (properties.gzip()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        // Leaves the plain ETag on the response; SerializedResponses swaps it when it writes gzip
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return false;
+        }
+        // The client may hold the compressed representation written by SerializedResponses
+        if (properties.gzip() && SerializedResponses.acceptsGzip(request)
+                && new ServletWebRequest(request, response).checkNotModified(gzipVariant(etag))) {
+            response.setHeader(HttpHeaders.ETAG, gzipVariant(etag));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * ETag of the gzip-compressed representation of a response, which must differ from the uncompressed one.
+     */
+    static String gzipVariant(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    private String version(DatasetETag.Source source) throws IOException {
+        return switch (source) {
+            case DATASET -> {
+                String version = dataSourceManager.datasetVersion();
+                yield JiraDataSourceManager.isDatabaseVersion(version) ? version : version + "." + INSTANCE;
+            }
+            case DATABASE_FILE -> JiraDataSourceManager.databaseVersion(databaseStore.getManifest().generation());
+        };
+    }
+
+    /**
+     * Hash of the request path and its parameters, sorted by name.
+     */
+    private static String hash(HttpServletRequest request) {
+        StringBuilder canonical = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+            for (String value : parameter.getValue()) {
+                canonical.append('\n').append(parameter.getKey()).append('=').append(value);
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.metrics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Retention of past sprint database generations for time-travel queries.
+ *
+ * @param retainedGenerations number of generations kept, including the current one; 1 keeps no history
+ * @param cachedGenerations   number of reconstructed past generations kept in memory
+ */
+@ConfigurationProperties(prefix = "dataset.history")
+public record DatasetHistoryProperties(
+        @DefaultValue("10") int retainedGenerations,
+        @DefaultValue("4") int cachedGenerations
+) {
+}
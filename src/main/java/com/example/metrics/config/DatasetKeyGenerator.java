@@ -0,0 +1,117 @@
+package com.example.metrics.config;
+
+import com.example.metrics.service.datasource.JiraDataSourceManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Cache key made of the dataset version being served, the method and its arguments.
+ * Every import, refresh or sync moves to a new version, so entries of older versions are simply
+ * never looked up again and age out of the cache; no TTL or eviction call is needed.
+ * Requests pinned to a past generation get their own entries.
+ */
+@Component(DatasetKeyGenerator.NAME)
+@RequiredArgsConstructor
+public class DatasetKeyGenerator implements KeyGenerator {
+
+    public static final String NAME = "datasetKeyGenerator";
+
+    private final JiraDataSourceManager dataSourceManager;
+
+    /**
+     * Key of one cached result. Only the version, method and arguments take part in equality;
+     * the target is kept so that a refreshing cache can compute the result again.
+     */
+    public static final class Key {
+
+        private final String datasetVersion;
+        private final Method method;
+        private final Object[] params;
+        private final Object target;
+        private final int hashCode;
+
+        Key(String datasetVersion, Object target, Method method, Object[] params) {
+            this.datasetVersion = datasetVersion;
+            this.target = target;
+            this.method = method;
+            this.params = params.clone();
+            this.hashCode = Objects.hash(datasetVersion, method, Arrays.deepHashCode(this.params));
+        }
+
+        public String datasetVersion() {
+            return datasetVersion;
+        }
+
+        Method method() {
+            return method;
+        }
+
+        /**
+         * Identity of the key that stays the same across restarts, as long as the arguments print the same.
+         */
+        String stableId() {
+            return datasetVersion + " " + method.getDeclaringClass().getName() + "#" + method.getName()
+                    + Arrays.deepToString(params);
+        }
+
+        /**
+         * The same call, for another dataset version.
+         */
+        Key withDatasetVersion(String version) {
+            return new Key(version, target, method, params);
+        }
+
+        /**
+         * Compute the cached result again by calling the method on its target, bypassing the cache.
+         */
+        Object invoke() throws Exception {
+            try {
+                return method.invoke(target, params);
+            } catch (InvocationTargetException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key
+                    && datasetVersion.equals(key.datasetVersion)
+                    && method.equals(key.method)
+                    && Arrays.deepEquals(params, key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return datasetVersion + " " + method.getName() + Arrays.deepToString(params);
+        }
+    }
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        return new Key(currentVersion(), target, method, params);
+    }
+
+    /**
+     * Version of the data the current thread reads, i.e. the pinned or latest generation.
+     */
+    String currentVersion() {
+        try {
+            return dataSourceManager.datasetVersion();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to resolve the dataset generation", e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.metrics.config;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.support.NullValue;
+
+/**
+ * Loader behind caches with refresh-after-write.
+ * Misses are left to the {@code @Cacheable} method itself: {@link RefreshingCaffeineCache} never asks
+ * the loader for a missing key, so {@link #load} does not run and records no load failure. Refreshes
+ * call the method again for keys made by {@link DatasetKeyGenerator}, as long as their dataset version
+ * is still the latest one. Entries of a superseded version keep their value until they age out, since
+ * computing them again would read a different generation.
+ */
+@RequiredArgsConstructor
+class DatasetRefreshLoader implements CacheLoader<Object, Object> {
+
+    private final DatasetKeyGenerator keyGenerator;
+
+    @Override
+    public Object load(Object key) {
+        return null;
+    }
+
+    @Override
+    public Object reload(Object key, Object oldValue) throws Exception {
+        if (!(key instanceof DatasetKeyGenerator.Key datasetKey)
+                || !datasetKey.datasetVersion().equals(keyGenerator.currentVersion())) {
+            return oldValue;
+        }
+        Object value = datasetKey.invoke();
+        if (!datasetKey.datasetVersion().equals(keyGenerator.currentVersion())) {
+            // A new generation was published while computing; the result may mix both
+            return oldValue;
+        }
+        return value != null ? value : NullValue.INSTANCE;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.metrics.config;
+
+import com.example.metrics.service.datasource.SprintDatabaseDataSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Pins each API request to one sprint database snapshot, so every read made while handling
+ * the request sees the same generation even if an import or sync publishes a new one meanwhile.
+ * <p>
+ * GET requests can ask for a past generation with {@code ?asOfGeneration=42}, or for the one that was
+ * current at a time with {@code ?asOf=2026-10-13T09:30} ({@code ?asOf=2026-10-13} means the end of that day).
+ * The generation served is returned in the {@value #GENERATION_HEADER} header. Admin endpoints report the
+ * database as it is now, so they answer these parameters with 400 Bad Request.
+ * <p>
+ * While a newer generation is being prepared in the background, GET requests keep being served the
+ * previous one, and the {@value #STALENESS_HEADER} header tells for how many seconds that has been the case.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatasetSnapshotFilter extends OncePerRequestFilter {
+
+    public static final String GENERATION_HEADER = "X-Dataset-Generation";
+    public static final String STALENESS_HEADER = "X-Dataset-Staleness";
+
+    // Status, diff and import progress come from the database file and the running import, not a snapshot
+    private static final String ADMIN_PATH = "/api/admin/";
+
+    private final SprintDatabaseDataSource sprintDatabaseSource;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String asOfGeneration = request.getParameter("asOfGeneration");
+        String asOf = request.getParameter("asOf");
+        if (!"GET".equals(request.getMethod())) {
+            try (SprintDatabaseDataSource.Pin ignored = sprintDatabaseSource.pin()) {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+        if (asOfGeneration == null && asOf == null) {
+            try (SprintDatabaseDataSource.Pin ignored = sprintDatabaseSource.pin()) {
+                describeLatest(response);
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+        if (request.getRequestURI().startsWith(ADMIN_PATH)) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    "asOfGeneration and asOf are not supported by admin endpoints");
+            return;
+        }
+
+        long generation;
+        SprintDatabaseDataSource.Pin pin;
+        try {
+            generation = asOfGeneration != null
+                    ? parseGeneration(asOfGeneration)
+                    : sprintDatabaseSource.generationAt(parseTimestamp(asOf));
+            pin = sprintDatabaseSource.pin(generation);
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        } catch (IOException e) {
+            log.error("Failed to load sprint database history", e);
+            writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Failed to load sprint database history: " + e.getMessage());
+            return;
+        }
+        try (pin) {
+            response.setHeader(GENERATION_HEADER, String.valueOf(generation));
+            chain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * Pin the latest snapshot now, so its generation and staleness can be reported before the body is written.
+     * Errors are left to the handler, which reads the same snapshot.
+     */
+    private void describeLatest(HttpServletResponse response) {
+        if (!sprintDatabaseSource.isAvailable()) {
+            return;
+        }
+        try {
+            response.setHeader(GENERATION_HEADER, String.valueOf(sprintDatabaseSource.snapshot().getGeneration()));
+        } catch (IOException e) {
+            return;
+        }
+        Duration staleness = sprintDatabaseSource.staleness();
+        if (staleness != null) {
+            response.setHeader(STALENESS_HEADER, String.valueOf(staleness.toSeconds()));
+        }
+    }
+
+    private static long parseGeneration(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid asOfGeneration: " + value);
+        }
+    }
+
+    /**
+     * Parse a timestamp in server local time, a timestamp with an offset, or a date (end of that day).
+     */
+    private static LocalDateTime parseTimestamp(String value) {
+        String trimmed = value.trim();
+        try {
+            if (!trimmed.contains("T")) {
+                return LocalDate.parse(trimmed).atTime(LocalTime.MAX);
+            }
+            if (trimmed.endsWith("Z") || trimmed.matches(".*[+-]\\d{2}:\\d{2}$")) {
+                return OffsetDateTime.parse(trimmed).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+            return LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid asOf: " + value
+                    + " (expected e.g. 2026-10-13, 2026-10-13T09:30 or 2026-10-13T09:30:00Z)");
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", message));
+    }
+}
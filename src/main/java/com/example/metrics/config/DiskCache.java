@@ -0,0 +1,267 @@
+package com.example.metrics.config;
+
+import com.example.metrics.service.MetricDefinitions;
+import com.example.metrics.service.datasource.JiraDataSourceManager;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Disk tier of the result caches: one JSON file per entry, read back through a memory-mapped buffer.
+ * <p>
+ * Only results keyed by a sprint database generation are stored, since the generation still identifies
+ * the same data after a restart. Files carry their full key, checked on read, a format version to bump
+ * when cached result types change, and the {@link MetricDefinitions#VERSION} they were computed with.
+ * The last access time of each file is kept in its modification time, so that least-recently-used
+ * eviction survives restarts too.
+ */
+@Slf4j
+class DiskCache {
+
+    static final int FORMAT_VERSION = 1;
+
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+    private final long maximumBytes;
+    private final ObjectMapper objectMapper;
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    private static final class Entry {
+        final long size;
+        volatile long lastAccess;
+
+        Entry(long size, long lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    DiskCache(Path directory, long maximumBytes, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.maximumBytes = maximumBytes;
+        this.objectMapper = objectMapper;
+        scan();
+    }
+
+    /**
+     * @return the stored value, or null if there is no usable entry for the key
+     */
+    ValueWrapper read(String cacheName, Object key) {
+        if (!(key instanceof DatasetKeyGenerator.Key datasetKey) || !isStorable(datasetKey)) {
+            return null;
+        }
+        Path file = file(cacheName, datasetKey);
+        Entry entry = entries.get(file);
+        if (entry == null) {
+            return null;
+        }
+        JavaType type = objectMapper.constructType(datasetKey.method().getGenericReturnType());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try (JsonParser in = objectMapper.getFactory().createParser(new ByteBufferBackedInputStream(buffer))) {
+                ValueWrapper value = readEntry(in, datasetKey.stableId(), type);
+                if (value == null) {
+                    log.debug("Ignoring cache file {} written for another key or format", file);
+                    return null;
+                }
+                touch(file, entry);
+                return value;
+            }
+        } catch (IOException e) {
+            log.warn("Dropping unreadable cache file {}: {}", file, e.getMessage());
+            delete(file);
+            return null;
+        }
+    }
+
+    void write(String cacheName, Object key, Object value) {
+        if (!(key instanceof DatasetKeyGenerator.Key datasetKey) || !isStorable(datasetKey)) {
+            return;
+        }
+        Path file = file(cacheName, datasetKey);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (JsonGenerator out = objectMapper.getFactory().createGenerator(tempFile.toFile(), JsonEncoding.UTF8)) {
+                out.writeStartObject();
+                out.writeNumberField("format", FORMAT_VERSION);
+                out.writeNumberField("definitions", MetricDefinitions.VERSION);
+                out.writeStringField("key", datasetKey.stableId());
+                out.writeFieldName("value");
+                objectMapper.writeValue(out, value);
+                out.writeEndObject();
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long size = Files.size(file);
+            Entry previous = entries.put(file, new Entry(size, System.currentTimeMillis()));
+            totalBytes.addAndGet(size - (previous != null ? previous.size : 0));
+        } catch (IOException e) {
+            log.warn("Failed to write cache file {}: {}", file, e.getMessage());
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignored) {
+                // Left for the next scan to skip
+            }
+            return;
+        }
+        if (totalBytes.get() > maximumBytes) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    void evict(String cacheName, Object key) {
+        if (key instanceof DatasetKeyGenerator.Key datasetKey && isStorable(datasetKey)) {
+            delete(file(cacheName, datasetKey));
+        }
+    }
+
+    void clear(String cacheName) {
+        Path cacheDirectory = directory.resolve(cacheName);
+        for (Path file : List.copyOf(entries.keySet())) {
+            if (file.startsWith(cacheDirectory)) {
+                delete(file);
+            }
+        }
+    }
+
+    long totalBytes() {
+        return totalBytes.get();
+    }
+
+    private static boolean isStorable(DatasetKeyGenerator.Key key) {
+        return JiraDataSourceManager.isDatabaseVersion(key.datasetVersion());
+    }
+
+    private ValueWrapper readEntry(JsonParser in, String expectedKey, JavaType type) throws IOException {
+        if (in.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("expected object at root");
+        }
+        int format = -1;
+        int definitions = -1;
+        String key = null;
+        while (in.nextToken() == JsonToken.FIELD_NAME) {
+            String field = in.currentName();
+            in.nextToken();
+            switch (field) {
+                case "format" -> format = in.getIntValue();
+                case "definitions" -> definitions = in.getIntValue();
+                case "key" -> key = in.getValueAsString();
+                case "value" -> {
+                    // Header fields are written first, so a mismatch never costs reading the value
+                    if (format != FORMAT_VERSION || definitions != MetricDefinitions.VERSION
+                            || !expectedKey.equals(key)) {
+                        return null;
+                    }
+                    return new SimpleValueWrapper(objectMapper.readValue(in, type));
+                }
+                default -> in.skipChildren();
+            }
+        }
+        throw new IOException("no value");
+    }
+
+    private void touch(Path file, Entry entry) {
+        long now = System.currentTimeMillis();
+        entry.lastAccess = now;
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+        } catch (IOException e) {
+            log.debug("Failed to record access to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private synchronized void evictLeastRecentlyUsed() {
+        List<Map.Entry<Path, Entry>> byAccess = new ArrayList<>(entries.entrySet());
+        byAccess.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        int evicted = 0;
+        for (Map.Entry<Path, Entry> entry : byAccess) {
+            if (totalBytes.get() <= maximumBytes) {
+                break;
+            }
+            delete(entry.getKey());
+            evicted++;
+        }
+        log.debug("Evicted {} cache files, {} bytes on disk", evicted, totalBytes.get());
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete cache file {}: {}", file, e.getMessage());
+            return;
+        }
+        Entry entry = entries.remove(file);
+        if (entry != null) {
+            totalBytes.addAndGet(-entry.size);
+        }
+    }
+
+    /**
+     * Index the entries left by previous runs.
+     */
+    private void scan() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).forEach(file -> {
+                try {
+                    long size = Files.size(file);
+                    entries.put(file, new Entry(size, Files.getLastModifiedTime(file).toMillis()));
+                    totalBytes.addAndGet(size);
+                } catch (IOException e) {
+                    log.debug("Skipping cache file {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to scan cache directory {}: {}", directory, e.getMessage());
+        }
+        log.info("Disk cache {}: {} entries, {} bytes", directory, entries.size(), totalBytes.get());
+        if (totalBytes.get() > maximumBytes) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    private Path file(String cacheName, DatasetKeyGenerator.Key key) {
+        return directory.resolve(cacheName).resolve(hash(key.stableId()) + SUFFIX);
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.metrics.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Weighs cache entries by a rough estimate of their heap size in bytes, assuming compressed oops.
+ * Records, collections, maps, arrays, strings and boxed values are walked; anything else counts as a small object.
+ * Shared objects are counted once per reference, which overestimates but never underestimates.
+ */
+class EstimatedSizeWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int SMALL_OBJECT = 24;
+    private static final int MAX_DEPTH = 8;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = estimate(key, 0) + estimate(value, 0);
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    static long estimate(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String string) {
+            // String object plus its Latin-1 (or UTF-16) backing array
+            return OBJECT_HEADER + 8 + OBJECT_HEADER + string.length() * (isLatin1(string) ? 1L : 2L);
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character
+                || value instanceof Enum<?> || value instanceof TemporalAccessor || depth >= MAX_DEPTH) {
+            return SMALL_OBJECT;
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = OBJECT_HEADER + 8 + OBJECT_HEADER + (long) collection.size() * REFERENCE;
+            for (Object element : collection) {
+                bytes += estimate(element, depth + 1);
+            }
+            return bytes;
+        }
+        if (value instanceof Map<?, ?> map) {
+            // A hash map entry is an object with key, value, hash and next
+            long bytes = OBJECT_HEADER + 32 + OBJECT_HEADER + (long) map.size() * (REFERENCE + 32);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                bytes += estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+            }
+            return bytes;
+        }
+        if (value instanceof byte[] array) {
+            return OBJECT_HEADER + array.length;
+        }
+        if (value instanceof Object[] array) {
+            long bytes = OBJECT_HEADER + (long) array.length * REFERENCE;
+            for (Object element : array) {
+                bytes += estimate(element, depth + 1);
+            }
+            return bytes;
+        }
+        if (value.getClass().isRecord()) {
+            return estimateRecord(value, depth);
+        }
+        return SMALL_OBJECT;
+    }
+
+    private static long estimateRecord(Object value, int depth) {
+        long bytes = OBJECT_HEADER;
+        for (RecordComponent component : value.getClass().getRecordComponents()) {
+            Class<?> type = component.getType();
+            if (type.isPrimitive()) {
+                bytes += type == long.class || type == double.class ? 8 : 4;
+                continue;
+            }
+            bytes += REFERENCE;
+            try {
+                bytes += estimate(component.getAccessor().invoke(value), depth + 1);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                bytes += SMALL_OBJECT;
+            }
+        }
+        return bytes;
+    }
+
+    private static boolean isLatin1(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.metrics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Jira connection settings for the fetch pipeline.
+ * The base URL can point at a local Jira stand-in for testing and benchmarking.
+ *
+ * @param baseUrl Jira site root, without a trailing slash (e.g. https://gspcloud.atlassian.net)
+ * @param boardId agile board whose sprint listing drives sprint discovery
+ */
+@ConfigurationProperties(prefix = "jira")
+public record JiraProperties(
+        @DefaultValue("https://gspcloud.atlassian.net") String baseUrl,
+        @DefaultValue("123") long boardId
+) {
+
+    public JiraProperties {
+        while (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+    }
+
+    /**
+     * Absolute URL for a REST path such as "/rest/api/3/search/jql".
+     */
+    public String url(String path) {
+        return baseUrl + path;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.metrics.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Caffeine cache whose lookups never load: a miss is left to the {@code @Cacheable} method.
+ * <p>
+ * Spring looks a key up in a {@code LoadingCache} with {@code get}, which calls the loader on every miss.
+ * Caches with refresh-after-write are loading caches only so that {@link DatasetRefreshLoader} can refresh
+ * their entries, so they are read with {@code getIfPresent} instead, which still triggers the refresh of
+ * an entry due for one.
+ */
+class RefreshingCaffeineCache extends CaffeineCache {
+
+    RefreshingCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return getNativeCache().getIfPresent(key);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.metrics.config;
+
+import com.example.metrics.service.datasource.JiraDataSourceManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON response bodies kept as ready-to-write bytes in the {@value CacheConfig#RESPONSES} cache, keyed by
+ * dataset version and resource, so a repeated request costs neither serialization nor compression.
+ * <p>
+ * Bodies of at least {@code api.response.gzip-min-size} also keep a gzip-compressed copy, sent with
+ * {@code Content-Encoding: gzip} to clients that accept it, under the {@link DatasetETagInterceptor#gzipVariant}
+ * of the response's ETag.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SerializedResponses {
+
+    private static final String GZIP = "gzip";
+
+    private final CacheManager cacheManager;
+    private final JiraDataSourceManager dataSourceManager;
+    private final ObjectMapper objectMapper;
+    private final ApiResponseProperties properties;
+
+    /**
+     * Computes a response body.
+     */
+    @FunctionalInterface
+    public interface Body {
+        Object compute() throws IOException;
+    }
+
+    /**
+     * @param gzip compressed copy of the JSON, or null if it is not worth compressing
+     */
+    record Serialized(byte[] json, byte[] gzip) {
+    }
+
+    /**
+     * 200 response with the serialized body of a resource of the current dataset version.
+     *
+     * @param resource identifies the body within a dataset version, e.g. {@code "sprints/Sprint 42/issues"}
+     */
+    public ResponseEntity<byte[]> ok(String resource, Body body) throws IOException {
+        Serialized serialized = get(dataSourceManager.datasetVersion() + " " + resource, body);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        ServletRequestAttributes request = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (serialized.gzip() == null || request == null || !acceptsGzip(request.getRequest())) {
+            return response.body(serialized.json());
+        }
+        // The interceptor already put the plain ETag on the response, which Spring keeps and would add
+        // the entity's ETag to; replace it there so that exactly one ETag goes out
+        HttpServletResponse servletResponse = request.getResponse();
+        String etag = servletResponse != null ? servletResponse.getHeader(HttpHeaders.ETAG) : null;
+        if (etag != null) {
+            servletResponse.setHeader(HttpHeaders.ETAG, DatasetETagInterceptor.gzipVariant(etag));
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(serialized.gzip());
+    }
+
+    private Serialized get(String key, Body body) throws IOException {
+        Cache cache = cacheManager.getCache(CacheConfig.RESPONSES);
+        if (cache == null) {
+            return serialize(body.compute());
+        }
+        try {
+            return cache.get(key, () -> serialize(body.compute()));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    private Serialized serialize(Object value) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(value);
+        if (!properties.gzip() || json.length < properties.gzipMinSize().toBytes()) {
+            return new Serialized(json, null);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        }
+        byte[] gzip = compressed.toByteArray();
+        log.debug("Serialized response: {} bytes, {} gzipped", json.length, gzip.length);
+        return new Serialized(json, gzip.length < json.length ? gzip : null);
+    }
+
+    /**
+     * Whether the request's {@code Accept-Encoding} allows gzip, i.e. lists it (or *) without {@code q=0}.
+     */
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!GZIP.equalsIgnoreCase(name) && !"*".equals(name)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") && isZero(parameter.substring(2))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isZero(String quality) {
+        try {
+            return Double.parseDouble(quality.trim()) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.metrics.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Caffeine cache backed by the {@link DiskCache}: misses are looked up on disk before being computed,
+ * and every value put in memory is also written to disk. Stays a {@link CaffeineCache} so that
+ * Spring Boot still binds its stats to Micrometer.
+ */
+class TieredCaffeineCache extends RefreshingCaffeineCache {
+
+    private final DiskCache diskCache;
+
+    TieredCaffeineCache(String name, Cache<Object, Object> cache, DiskCache diskCache) {
+        super(name, cache, true);
+        this.diskCache = diskCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value != null) {
+            return value;
+        }
+        ValueWrapper stored = diskCache.read(getName(), key);
+        if (stored == null) {
+            return null;
+        }
+        value = toStoreValue(stored.get());
+        getNativeCache().put(key, value);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return super.get(key, () -> {
+            ValueWrapper stored = diskCache.read(getName(), key);
+            if (stored != null) {
+                return (T) stored.get();
+            }
+            T value = valueLoader.call();
+            diskCache.write(getName(), key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        diskCache.write(getName(), key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = super.putIfAbsent(key, value);
+        if (existing == null) {
+            diskCache.write(getName(), key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        diskCache.evict(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        diskCache.evict(getName(), key);
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        diskCache.clear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        diskCache.clear(getName());
+        return super.invalidate();
+    }
+}
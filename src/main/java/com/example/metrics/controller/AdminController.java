@@ -1,18 +1,23 @@
 package com.example.metrics.controller;
 
-import com.example.metrics.model.jira.Issue;
+import com.example.metrics.config.DatasetETag;
 import com.example.metrics.service.DataImportService;
+import com.example.metrics.service.GenerationDiffService;
+import com.example.metrics.service.ImportInProgressException;
 import com.example.metrics.service.JiraFetchService;
 import com.example.metrics.service.JiraFetchService.JiraCredentials;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.metrics.service.SprintAnalysisService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 /**
@@ -28,12 +33,14 @@ public class AdminController {
 
     private final DataImportService dataImportService;
     private final JiraFetchService jiraFetchService;
-    private final ObjectMapper objectMapper;
+    private final GenerationDiffService generationDiffService;
+    private final SprintAnalysisService sprintAnalysisService;
 
     /**
      * Get database status including sprint counts and last update time.
      */
     @GetMapping("/status")
+    @DatasetETag(DatasetETag.Source.DATABASE_FILE)
     public ResponseEntity<Map<String, Object>> getDatabaseStatus() {
         try {
             Map<String, Object> status = dataImportService.getDatabaseStatus();
@@ -46,7 +53,30 @@ public class AdminController {
     }
 
     /**
-     * Refresh the in-memory cache from the database file.
+     * Compare two generations of the sprint database: issues added, removed and changed (status, sprint,
+     * fix version or other content), with per-sprint and per-fix-version counts.
+     * Defaults to the changes made by the latest write.
+     */
+    @GetMapping("/diff")
+    public ResponseEntity<?> diffGenerations(
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to) {
+        try {
+            GenerationDiffService.GenerationDiff diff = generationDiffService.compare(from, to);
+            StreamingResponseBody body = out -> generationDiffService.write(diff, out);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            log.error("Failed to compare generations", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", "Failed to compare generations: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Reload every sprint from the database file in the background. Until the reload is ready the previous
+     * generation is served, and responses carry the X-Dataset-Staleness header.
      */
     @PostMapping("/refresh")
     public ResponseEntity<Map<String, Object>> refreshCache() {
@@ -54,63 +84,46 @@ public class AdminController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Drop the frozen summaries of closed sprints, so that they are computed again from their issues.
+     * Needed only when issues of a closed sprint were corrected without refetching the sprint.
+     */
+    @PostMapping("/sprint-summaries/recompute")
+    public ResponseEntity<Map<String, Object>> recomputeClosedSprintSummaries() {
+        try {
+            int dropped = sprintAnalysisService.recomputeClosedSprints();
+            return ResponseEntity.ok(Map.of("success", true, "droppedSummaries", dropped));
+        } catch (IOException e) {
+            log.error("Failed to clear closed sprint summaries", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", "Failed to clear closed sprint summaries: " + e.getMessage()));
+        }
+    }
+
     /**
      * Import a Jira export JSON file.
      * The file should contain issues in the format exported by JiraHistoryExporter.
+     * The upload is streamed into the database one issue at a time; malformed issues are skipped.
+     * Answers 409 Conflict while another import is running.
      */
     @PostMapping("/import")
     public ResponseEntity<Map<String, Object>> importJiraExport(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "sprintId", required = false) String sprintId) {
         
-        try {
+        try (InputStream in = file.getInputStream()) {
             log.info("Importing file: {} ({} bytes)", file.getOriginalFilename(), file.getSize());
             
-            JsonNode root = objectMapper.readTree(file.getInputStream());
-            
-            // Check if it's a direct issues array or wrapped in an object
-            JsonNode issuesNode;
-            if (root.isArray()) {
-                issuesNode = root;
-            } else {
-                issuesNode = root.path("issues");
-                if (issuesNode.isMissingNode() || !issuesNode.isArray()) {
-                    return ResponseEntity.badRequest()
-                            .body(Map.of("error", "Invalid format: expected 'issues' array"));
-                }
-            }
-            
-            // Parse issues
-            List<Issue> issues = new ArrayList<>();
-            for (JsonNode issueNode : issuesNode) {
-                try {
-                    Issue issue = objectMapper.treeToValue(issueNode, Issue.class);
-                    issues.add(issue);
-                } catch (Exception e) {
-                    log.warn("Failed to parse issue: {}", issueNode.path("key").asText(), e);
-                }
-            }
-            
-            if (issues.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "No valid issues found in file"));
-            }
-            
-            // Determine sprint ID
-            String targetSprintId = sprintId;
-            if (targetSprintId == null || targetSprintId.isBlank()) {
-                // Try to extract from first issue's sprint field
-                targetSprintId = extractSprintId(issues.get(0));
-                if (targetSprintId == null) {
-                    return ResponseEntity.badRequest()
-                            .body(Map.of("error", "Could not determine sprint ID. Please provide sprintId parameter."));
-                }
-            }
-            
-            // Import
-            Map<String, Object> result = dataImportService.importSprint(targetSprintId, issues);
+            Map<String, Object> result = dataImportService.importSprint(
+                    in, file.getSize(), file.getOriginalFilename(), sprintId);
             return ResponseEntity.ok(result);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (ImportInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
         } catch (IOException e) {
             log.error("Failed to import file", e);
             return ResponseEntity.internalServerError()
@@ -119,20 +132,49 @@ public class AdminController {
     }
 
     /**
-     * Extract sprint ID from an issue's sprint field.
+     * Import many sprint exports at once, e.g. for a historical backfill.
+     * Accepts several JSON exports and/or zip archives of exports; the sprint of each export is
+     * taken from its issues. All sprints are written in one database update. If any export fails,
+     * nothing is imported unless allowPartial is set. Answers 409 Conflict while another import is running.
      */
-    private String extractSprintId(Issue issue) {
-        if (issue.getFields() == null) return null;
-
-        Object sprintField = issue.getFields().getCustomField("customfield_10020");
-        if (sprintField instanceof List<?> sprintList && !sprintList.isEmpty()) {
-            Object firstSprint = sprintList.get(0);
-            if (firstSprint instanceof Map<?, ?> sprintMap) {
-                Object id = sprintMap.get("id");
-                return id != null ? id.toString() : null;
+    @PostMapping("/import/bulk")
+    public ResponseEntity<Map<String, Object>> importJiraExports(
+            @RequestParam("files") MultipartFile[] files,
+            @RequestParam(defaultValue = "false") boolean allowPartial) {
+
+        List<DataImportService.ImportFile> uploads = new ArrayList<>();
+        for (MultipartFile file : files) {
+            String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : file.getName();
+            uploads.add(new DataImportService.ImportFile(name, file.getSize(), file::getInputStream));
+        }
+        log.info("Bulk importing {} upload(s)", uploads.size());
+
+        try {
+            Map<String, Object> result = dataImportService.importSprints(uploads, allowPartial);
+            if (!Boolean.TRUE.equals(result.get("committed"))) {
+                return ResponseEntity.badRequest().body(result);
             }
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (ImportInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            log.error("Failed to bulk import files", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", "Failed to import: " + e.getMessage()));
         }
-        return null;
+    }
+
+    /**
+     * Progress of the running (or most recent) import: bytes read, issues imported and skipped.
+     */
+    @GetMapping("/import/progress")
+    public ResponseEntity<Map<String, Object>> getImportProgress() {
+        return ResponseEntity.ok(dataImportService.getImportProgress());
     }
 
     // ========== Jira Fetch Endpoints ==========
@@ -181,10 +223,13 @@ public class AdminController {
 
     /**
      * Fetch new sprints that are not in the database.
-     * Discovers all sprints from Jira and fetches only new ones.
+     * Discovers new sprints from the board and fetches only those; with reconcile=true,
+     * also scans all team issues for sprints the board listing missed.
      */
     @PostMapping("/fetch-new")
-    public ResponseEntity<Map<String, Object>> fetchNewSprints(@RequestBody CredentialsRequest request) {
+    public ResponseEntity<Map<String, Object>> fetchNewSprints(
+            @RequestBody CredentialsRequest request,
+            @RequestParam(defaultValue = "false") boolean reconcile) {
         try {
             log.info("Starting fetch new sprints with provided credentials");
 
@@ -201,7 +246,7 @@ public class AdminController {
                     request.tenantSessionToken()
             );
 
-            Map<String, Object> result = jiraFetchService.fetchNewSprints(credentials);
+            Map<String, Object> result = jiraFetchService.fetchNewSprints(credentials, reconcile);
             return ResponseEntity.ok(result);
 
         } catch (Exception e) {
@@ -1,9 +1,15 @@
 package com.example.metrics.controller;
 
+import com.example.metrics.config.DatasetETag;
+import com.example.metrics.config.SerializedResponses;
 import com.example.metrics.model.dto.FixVersionSummary;
 import com.example.metrics.model.dto.IssueDetail;
 import com.example.metrics.service.FixVersionAnalysisService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,23 +17,25 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
-import java.util.List;
 
 @Slf4j
 @RestController
+@DatasetETag
 @RequestMapping("/api/fix-versions")
 @RequiredArgsConstructor
 @Tag(name = "Fix Version Analysis", description = "Fix version metrics and analysis endpoints")
 public class FixVersionController {
     
     private final FixVersionAnalysisService fixVersionAnalysisService;
+    private final SerializedResponses serializedResponses;
     
     @GetMapping
     @Operation(summary = "Get all fix version summaries")
-    public ResponseEntity<List<FixVersionSummary>> getAllFixVersions() {
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = FixVersionSummary.class))))
+    public ResponseEntity<byte[]> getAllFixVersions() {
         try {
-            List<FixVersionSummary> summaries = fixVersionAnalysisService.getAllFixVersionSummaries();
-            return ResponseEntity.ok(summaries);
+            return serializedResponses.ok("fix-versions", fixVersionAnalysisService::getAllFixVersionSummaries);
         } catch (IOException e) {
             log.error("Error fetching fix version summaries", e);
             return ResponseEntity.internalServerError().build();
@@ -51,10 +59,12 @@ public class FixVersionController {
 
     @GetMapping("/{versionName}/issues")
     @Operation(summary = "Get all issues for a specific fix version")
-    public ResponseEntity<List<IssueDetail>> getFixVersionIssues(@PathVariable String versionName) {
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = IssueDetail.class))))
+    public ResponseEntity<byte[]> getFixVersionIssues(@PathVariable String versionName) {
         try {
-            List<IssueDetail> issues = fixVersionAnalysisService.getFixVersionIssues(versionName);
-            return ResponseEntity.ok(issues);
+            return serializedResponses.ok("fix-versions/" + versionName + "/issues",
+                () -> fixVersionAnalysisService.getFixVersionIssues(versionName));
         } catch (IOException e) {
             log.error("Error fetching fix version issues for {}", versionName, e);
             return ResponseEntity.internalServerError().build();
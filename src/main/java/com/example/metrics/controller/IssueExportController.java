@@ -0,0 +1,54 @@
+package com.example.metrics.controller;
+
+import com.example.metrics.config.DatasetETag;
+import com.example.metrics.service.IssueExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/issues")
+@RequiredArgsConstructor
+@Tag(name = "Issue Export", description = "Streaming export of the issues of the dataset")
+public class IssueExportController {
+
+    private final IssueExportService issueExportService;
+
+    /**
+     * Stream issues as NDJSON, one issue per line, optionally only those of a sprint, fix version or issue type.
+     * The issues are selected from the requested dataset generation before the response starts, then written
+     * as they are iterated.
+     */
+    @GetMapping("/export")
+    @DatasetETag
+    @Operation(summary = "Export issues as NDJSON")
+    public ResponseEntity<?> exportIssues(
+            @RequestParam(required = false) String sprint,
+            @RequestParam(required = false) String version,
+            @RequestParam(required = false) String type) {
+        try {
+            IssueExportService.Selection selection =
+                issueExportService.select(new IssueExportService.Filter(sprint, version, type));
+            StreamingResponseBody body = out -> issueExportService.write(selection, out);
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+        } catch (IOException e) {
+            log.error("Failed to export issues", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to export issues: " + e.getMessage()));
+        }
+    }
+}
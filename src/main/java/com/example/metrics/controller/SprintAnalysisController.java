@@ -1,9 +1,15 @@
 package com.example.metrics.controller;
 
+import com.example.metrics.config.DatasetETag;
+import com.example.metrics.config.SerializedResponses;
 import com.example.metrics.model.dto.IssueDetail;
 import com.example.metrics.model.dto.SprintSummary;
 import com.example.metrics.service.SprintAnalysisService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,23 +20,25 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
-import java.util.List;
 
 @Slf4j
 @RestController
+@DatasetETag
 @RequestMapping("/api/sprints")
 @RequiredArgsConstructor
 @Tag(name = "Sprint Analysis", description = "Sprint metrics and analysis endpoints")
 public class SprintAnalysisController {
     
     private final SprintAnalysisService sprintAnalysisService;
+    private final SerializedResponses serializedResponses;
     
     @GetMapping
     @Operation(summary = "Get all sprint summaries")
-    public ResponseEntity<List<SprintSummary>> getAllSprints() {
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = SprintSummary.class))))
+    public ResponseEntity<byte[]> getAllSprints() {
         try {
-            List<SprintSummary> summaries = sprintAnalysisService.getAllSprintSummaries();
-            return ResponseEntity.ok(summaries);
+            return serializedResponses.ok("sprints", sprintAnalysisService::getAllSprintSummaries);
         } catch (IOException e) {
             log.error("Error fetching sprint summaries", e);
             return ResponseEntity.internalServerError().build();
@@ -54,10 +62,12 @@ public class SprintAnalysisController {
 
     @GetMapping("/{sprintName}/issues")
     @Operation(summary = "Get all issues for a specific sprint")
-    public ResponseEntity<List<IssueDetail>> getSprintIssues(@PathVariable String sprintName) {
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = IssueDetail.class))))
+    public ResponseEntity<byte[]> getSprintIssues(@PathVariable String sprintName) {
         try {
-            List<IssueDetail> issues = sprintAnalysisService.getSprintIssues(sprintName);
-            return ResponseEntity.ok(issues);
+            return serializedResponses.ok("sprints/" + sprintName + "/issues",
+                () -> sprintAnalysisService.getSprintIssues(sprintName));
         } catch (IOException e) {
             log.error("Error fetching sprint issues for: {}", sprintName, e);
             return ResponseEntity.internalServerError().build();
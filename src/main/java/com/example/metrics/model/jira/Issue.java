@@ -8,6 +8,7 @@ public class Issue {
     private String key;
     private Fields fields;
     private Changelog changelog;
+    private String contentHash;
 
     public String getId() {
         return id;
@@ -40,4 +41,15 @@ public class Issue {
     public void setChangelog(Changelog changelog) {
         this.changelog = changelog;
     }
+
+    /**
+     * Hash of the stored issue content, or null for issues stored without one.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
 }
@@ -2,148 +2,479 @@ package com.example.metrics.service;
 
 import com.example.metrics.model.jira.Issue;
 import com.example.metrics.service.datasource.SprintDatabaseDataSource;
+import com.example.metrics.service.fetch.SprintStagingFile;
+import com.example.metrics.service.storage.DatabaseManifest;
+import com.example.metrics.service.storage.GenerationHistory;
+import com.example.metrics.service.storage.SprintDatabaseStore;
+import com.example.metrics.util.CountingInputStream;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipFile;
 
 /**
  * Service for importing and merging Jira data into the sprint database.
- * Supports delta updates and full imports.
+ * Supports delta updates and full imports; imports are streamed, never held in memory whole.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DataImportService {
 
-    private static final String DATABASE_FILE = "tools/jira-sprint-database.json";
+    private static final String DATABASE_FILE = SprintDatabaseStore.DATABASE_FILE;
+    private static final int IMPORT_BATCH_SIZE = 500;
+    private static final int PROGRESS_LOG_INTERVAL = 1000;
+    private static final int MAX_PARALLEL_IMPORTS = Math.max(2, Runtime.getRuntime().availableProcessors());
     
     private final ObjectMapper objectMapper;
     private final SprintDatabaseDataSource sprintDatabaseSource;
+    private final SprintDatabaseStore databaseStore;
+    private final GenerationHistory generationHistory;
+    private final AtomicReference<ImportProgress> currentImport = new AtomicReference<>();
+
+    /**
+     * Opens the content of an uploaded export.
+     */
+    @FunctionalInterface
+    public interface ExportContent {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * An uploaded sprint export or zip archive of exports.
+     *
+     * @param size content size in bytes, for progress reporting
+     */
+    public record ImportFile(String name, long size, ExportContent content) {}
+
+    /**
+     * An export parsed into its staging file.
+     */
+    private record StagedExport(String source, String sprintId, Path stagingFile, int issueCount,
+                                int skippedIssues) {}
 
     /**
      * Get the current database status.
      */
     public Map<String, Object> getDatabaseStatus() throws IOException {
         File dbFile = new File(DATABASE_FILE);
+        DatabaseManifest manifest = databaseStore.getManifest();
         Map<String, Object> status = new LinkedHashMap<>();
         
         status.put("databaseFile", dbFile.getAbsolutePath());
-        status.put("exists", dbFile.exists());
+        status.put("exists", manifest.fileSize() >= 0);
+        status.put("generation", manifest.generation());
         
-        if (dbFile.exists()) {
-            JsonNode root = objectMapper.readTree(dbFile);
-            status.put("created", root.path("created").asText());
-            status.put("lastUpdated", root.path("lastUpdated").asText());
-            status.put("totalSprints", root.path("totalSprints").asInt());
+        if (manifest.fileSize() >= 0) {
+            status.put("created", manifest.created());
+            status.put("lastUpdated", manifest.lastUpdated());
+            status.put("totalSprints", manifest.totalSprints());
             
-            // Count total issues
-            JsonNode sprints = root.path("sprints");
-            int totalIssues = 0;
             List<Map<String, Object>> sprintSummaries = new ArrayList<>();
-            
-            if (sprints.isObject()) {
-                Iterator<Map.Entry<String, JsonNode>> fields = sprints.fields();
-                while (fields.hasNext()) {
-                    Map.Entry<String, JsonNode> entry = fields.next();
-                    String sprintId = entry.getKey();
-                    JsonNode sprintData = entry.getValue();
-                    int issueCount = sprintData.path("issues").size();
-                    totalIssues += issueCount;
-                    
-                    Map<String, Object> summary = new LinkedHashMap<>();
-                    summary.put("sprintId", sprintId);
-                    summary.put("issueCount", issueCount);
-                    summary.put("fetchedAt", sprintData.path("fetchedAt").asText());
-                    sprintSummaries.add(summary);
-                }
+            for (DatabaseManifest.SprintEntry sprint : manifest.sprints()) {
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("sprintId", sprint.sprintId());
+                summary.put("issueCount", sprint.issueCount());
+                summary.put("fetchedAt", sprint.fetchedAt());
+                sprintSummaries.add(summary);
             }
             
-            status.put("totalIssues", totalIssues);
+            status.put("totalIssues", manifest.totalIssues());
             status.put("sprints", sprintSummaries);
-            status.put("fileSizeBytes", dbFile.length());
-            status.put("fileSizeMB", String.format("%.2f", dbFile.length() / (1024.0 * 1024.0)));
+            status.put("fileSizeBytes", manifest.fileSize());
+            status.put("fileSizeMB", String.format("%.2f", manifest.fileSize() / (1024.0 * 1024.0)));
+            status.put("checksum", manifest.checksum());
+
+            // Past generations that can still be queried with ?asOfGeneration= / ?asOf=
+            List<Map<String, Object>> history = new ArrayList<>();
+            for (GenerationHistory.Delta delta : generationHistory.list()) {
+                if (delta.generation() < manifest.generation()) {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("generation", delta.generation());
+                    entry.put("lastUpdated", delta.lastUpdated());
+                    entry.put("supersededAt", delta.supersededAt());
+                    entry.put("totalSprints", delta.manifest().totalSprints());
+                    history.add(entry);
+                }
+            }
+            status.put("history", history);
         }
         
         return status;
     }
 
     /**
-     * Import a new sprint into the database.
+     * Import a sprint export streamed from an upload.
+     * The export (an issues array, or an object with an "issues" array) is read one issue at a time
+     * and spooled to a staging file, so memory use does not grow with the export size. Issues that
+     * cannot be mapped are skipped. The staged sprint is then streamed into the database in one rewrite.
+     *
+     * @param in         export content
+     * @param totalBytes upload size for progress reporting, or -1 if unknown
+     * @param fileName   upload name for progress reporting
+     * @param sprintId   target sprint, or null to take it from the first issue's sprint field
+     * @throws IllegalArgumentException  if the export has no valid issues or no sprint ID can be determined
+     * @throws ImportInProgressException if another import is still running
      */
-    public Map<String, Object> importSprint(String sprintId, List<Issue> issues) throws IOException {
-        log.info("Importing sprint {} with {} issues", sprintId, issues.size());
-        
-        File dbFile = new File(DATABASE_FILE);
-        ObjectNode root;
-        
-        if (dbFile.exists()) {
-            root = (ObjectNode) objectMapper.readTree(dbFile);
-        } else {
-            root = objectMapper.createObjectNode();
-            root.put("created", LocalDateTime.now().toString());
-            root.put("totalSprints", 0);
-            root.putObject("sprints");
+    public Map<String, Object> importSprint(InputStream in, long totalBytes, String fileName, String sprintId)
+            throws IOException {
+        ImportProgress progress = startImport(fileName, totalBytes);
+        Path stagingFile = Files.createTempFile("sprint-import-", ".ndjson");
+        try {
+            StagedExport staged = stageIssues(fileName, in, stagingFile, sprintId, progress);
+            if (staged.issueCount() == 0) {
+                throw new IllegalArgumentException("No valid issues found in file");
+            }
+            if (staged.sprintId() == null) {
+                throw new IllegalArgumentException("Could not determine sprint ID. Please provide sprintId parameter.");
+            }
+            String targetSprintId = staged.sprintId();
+            int issueCount = staged.issueCount();
+            log.info("Importing sprint {} with {} issues ({} skipped)",
+                    targetSprintId, issueCount, staged.skippedIssues());
+
+            Integer oldIssueCount = databaseStore.readSprintIssueCounts().get(targetSprintId);
+            boolean isUpdate = oldIssueCount != null;
+            SprintDatabaseStore.SprintWrite write = databaseStore.replaceSprints(
+                    Map.of(targetSprintId, databaseStore.fromNdjson(stagingFile))).get(targetSprintId);
+
+            // Publish the new generation to readers
+            sprintDatabaseSource.refresh();
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("success", true);
+            result.put("sprintId", targetSprintId);
+            result.put("action", action(isUpdate, write));
+            result.put("issueCount", issueCount);
+            result.put("skippedIssues", staged.skippedIssues());
+            putChangeCounts(result, write);
+            if (isUpdate) {
+                result.put("previousIssueCount", oldIssueCount);
+                result.put("delta", issueCount - oldIssueCount);
+            }
+
+            log.info("Sprint {} {} successfully with {} issues ({} changed, {} unchanged)", targetSprintId,
+                    action(isUpdate, write), issueCount, write.changedIssues(), write.unchangedIssues());
+            return result;
+        } finally {
+            progress.finish();
+            Files.deleteIfExists(stagingFile);
         }
-        
-        // Get or create sprints object
-        ObjectNode sprints = (ObjectNode) root.path("sprints");
-        if (sprints.isMissingNode()) {
-            sprints = root.putObject("sprints");
+    }
+
+    /**
+     * Import many sprint exports in one go, e.g. for a historical backfill.
+     * Uploads may be single exports or zip archives of exports. Exports are parsed in parallel,
+     * each into its own staging file, then all sprints are committed in a single database rewrite
+     * followed by one snapshot refresh.
+     *
+     * @param uploads      exports or zip archives
+     * @param allowPartial commit the valid exports even if others fail; otherwise nothing is committed
+     * @return per-sprint results, with "committed" telling whether the database was written
+     * @throws IllegalArgumentException  if the uploads contain no exports
+     * @throws ImportInProgressException if another import is still running
+     */
+    public Map<String, Object> importSprints(List<ImportFile> uploads, boolean allowPartial) throws IOException {
+        ImportProgress progress = startImport(uploads.size() + " upload(s)", -1);
+        List<Path> tempFiles = new ArrayList<>();
+        List<ZipFile> archives = new ArrayList<>();
+        ExecutorService executor = null;
+        try {
+            List<ImportFile> exports = expandArchives(uploads, tempFiles, archives);
+            if (exports.isEmpty()) {
+                throw new IllegalArgumentException("No sprint exports found in upload");
+            }
+            progress.totalBytes = exports.stream().mapToLong(ImportFile::size).sum();
+            log.info("Bulk importing {} sprint export(s)", exports.size());
+
+            executor = Executors.newFixedThreadPool(Math.min(exports.size(), MAX_PARALLEL_IMPORTS));
+            List<Future<StagedExport>> futures = new ArrayList<>();
+            for (ImportFile export : exports) {
+                Path stagingFile = Files.createTempFile("sprint-import-", ".ndjson");
+                tempFiles.add(stagingFile);
+                futures.add(executor.submit(() -> {
+                    try (InputStream in = export.content().open()) {
+                        return stageIssues(export.name(), in, stagingFile, null, progress);
+                    }
+                }));
+            }
+
+            // Collect staged sprints in upload order, recording a failure per export that cannot be imported
+            Map<String, StagedExport> staged = new LinkedHashMap<>();
+            List<Map<String, Object>> failures = new ArrayList<>();
+            for (int i = 0; i < exports.size(); i++) {
+                String error;
+                try {
+                    StagedExport export = futures.get(i).get();
+                    if (export.issueCount() == 0) {
+                        error = "No valid issues found in file";
+                    } else if (export.sprintId() == null) {
+                        error = "Could not determine sprint ID from the issues' sprint field";
+                    } else if (staged.containsKey(export.sprintId())) {
+                        error = "Sprint " + export.sprintId() + " also imported from " +
+                                staged.get(export.sprintId()).source();
+                    } else {
+                        staged.put(export.sprintId(), export);
+                        continue;
+                    }
+                } catch (ExecutionException e) {
+                    error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Bulk import interrupted", e);
+                }
+                Map<String, Object> failure = new LinkedHashMap<>();
+                failure.put("source", exports.get(i).name());
+                failure.put("success", false);
+                failure.put("error", error);
+                failures.add(failure);
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            boolean commit = !staged.isEmpty() && (failures.isEmpty() || allowPartial);
+            List<Map<String, Object>> results = new ArrayList<>();
+            if (commit) {
+                Map<String, Integer> existingCounts = databaseStore.readSprintIssueCounts();
+                Map<String, SprintDatabaseStore.IssueStream> replacements = new LinkedHashMap<>();
+                staged.forEach((sprintId, export) ->
+                        replacements.put(sprintId, databaseStore.fromNdjson(export.stagingFile())));
+                Map<String, SprintDatabaseStore.SprintWrite> writes = databaseStore.replaceSprints(replacements);
+                sprintDatabaseSource.refresh();
+
+                for (StagedExport export : staged.values()) {
+                    Integer oldIssueCount = existingCounts.get(export.sprintId());
+                    SprintDatabaseStore.SprintWrite write = writes.get(export.sprintId());
+                    Map<String, Object> sprintResult = new LinkedHashMap<>();
+                    sprintResult.put("source", export.source());
+                    sprintResult.put("success", true);
+                    sprintResult.put("sprintId", export.sprintId());
+                    sprintResult.put("action", action(oldIssueCount != null, write));
+                    sprintResult.put("issueCount", export.issueCount());
+                    sprintResult.put("skippedIssues", export.skippedIssues());
+                    putChangeCounts(sprintResult, write);
+                    if (oldIssueCount != null) {
+                        sprintResult.put("previousIssueCount", oldIssueCount);
+                        sprintResult.put("delta", export.issueCount() - oldIssueCount);
+                    }
+                    results.add(sprintResult);
+                }
+            }
+            results.addAll(failures);
+
+            result.put("success", failures.isEmpty());
+            result.put("committed", commit);
+            result.put("sprintsImported", commit ? staged.size() : 0);
+            result.put("failed", failures.size());
+            if (!commit) {
+                result.put("error", failures.size() + " export(s) could not be imported; nothing was committed");
+            }
+            result.put("results", results);
+            log.info("Bulk import finished: {} sprint(s) committed, {} failed", commit ? staged.size() : 0,
+                    failures.size());
+            return result;
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            progress.finish();
+            for (ZipFile archive : archives) {
+                archive.close();
+            }
+            for (Path tempFile : tempFiles) {
+                Files.deleteIfExists(tempFile);
+            }
         }
-        
-        // Check if sprint already exists
-        boolean isUpdate = sprints.has(sprintId);
-        int oldIssueCount = 0;
-        if (isUpdate) {
-            oldIssueCount = sprints.path(sprintId).path("issues").size();
+    }
+
+    private static String action(boolean isUpdate, SprintDatabaseStore.SprintWrite write) {
+        if (!write.written()) {
+            return "unchanged";
         }
-        
-        // Create sprint data
-        ObjectNode sprintData = objectMapper.createObjectNode();
-        sprintData.put("sprintId", sprintId);
-        sprintData.put("totalIssues", issues.size());
-        sprintData.put("fetchedAt", LocalDateTime.now().toString());
-        sprintData.set("issues", objectMapper.valueToTree(issues));
-        
-        // Add/update sprint
-        sprints.set(sprintId, sprintData);
-        
-        // Update metadata
-        root.put("lastUpdated", LocalDateTime.now().toString());
-        root.put("totalSprints", sprints.size());
-        
-        // Save
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(dbFile, root);
-        
-        // Clear cache to reload
-        sprintDatabaseSource.clearCache();
-        
-        Map<String, Object> result = new LinkedHashMap<>();
-        result.put("success", true);
-        result.put("sprintId", sprintId);
-        result.put("action", isUpdate ? "updated" : "created");
-        result.put("issueCount", issues.size());
-        if (isUpdate) {
-            result.put("previousIssueCount", oldIssueCount);
-            result.put("delta", issues.size() - oldIssueCount);
+        return isUpdate ? "updated" : "created";
+    }
+
+    /**
+     * Report how many issues actually changed; unchanged issues were not rewritten or reloaded.
+     */
+    private static void putChangeCounts(Map<String, Object> result, SprintDatabaseStore.SprintWrite write) {
+        result.put("changedIssues", write.changedIssues());
+        result.put("unchangedIssues", write.unchangedIssues());
+        result.put("removedIssues", write.removedIssues());
+    }
+
+    /**
+     * Make a new import the current one. Imports run one at a time, so that the progress endpoint
+     * reports a single import and two imports don't overwrite each other's progress.
+     *
+     * @throws ImportInProgressException if another import is still running
+     */
+    private ImportProgress startImport(String fileName, long totalBytes) {
+        ImportProgress progress = new ImportProgress(fileName, totalBytes);
+        ImportProgress current = currentImport.get();
+        while (current == null || !current.running) {
+            if (currentImport.compareAndSet(current, progress)) {
+                return progress;
+            }
+            current = currentImport.get();
         }
-        
-        log.info("Sprint {} {} successfully with {} issues", 
-                sprintId, isUpdate ? "updated" : "created", issues.size());
-        
-        return result;
+        throw new ImportInProgressException(current.fileName);
+    }
+
+    /**
+     * Progress of the running (or most recent) import.
+     */
+    public Map<String, Object> getImportProgress() {
+        ImportProgress progress = currentImport.get();
+        if (progress == null) {
+            return Map.of("running", false);
+        }
+        return progress.toMap();
+    }
+
+    /**
+     * Expand zip uploads into their JSON entries; other uploads are taken as single exports.
+     * Archives are spooled to temp files so their entries can be read in parallel.
+     */
+    private List<ImportFile> expandArchives(List<ImportFile> uploads, List<Path> tempFiles, List<ZipFile> archives)
+            throws IOException {
+        List<ImportFile> exports = new ArrayList<>();
+        for (ImportFile upload : uploads) {
+            if (!upload.name().toLowerCase(Locale.ROOT).endsWith(".zip")) {
+                exports.add(upload);
+                continue;
+            }
+            Path archivePath = Files.createTempFile("sprint-import-", ".zip");
+            tempFiles.add(archivePath);
+            try (InputStream in = upload.content().open()) {
+                Files.copy(in, archivePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            ZipFile archive = new ZipFile(archivePath.toFile());
+            archives.add(archive);
+            archive.stream()
+                    .filter(entry -> !entry.isDirectory())
+                    .filter(entry -> entry.getName().toLowerCase(Locale.ROOT).endsWith(".json"))
+                    .forEach(entry -> exports.add(new ImportFile(
+                            upload.name() + "!" + entry.getName(),
+                            Math.max(entry.getSize(), 0),
+                            () -> archive.getInputStream(entry))));
+        }
+        return exports;
+    }
+
+    /**
+     * Copy the valid issues of an export into a staging file, one issue at a time.
+     *
+     * @param sprintId target sprint, or null to take it from the first issue's sprint field
+     */
+    private StagedExport stageIssues(String source, InputStream in, Path stagingFile, String sprintId,
+                                     ImportProgress progress) throws IOException {
+        String targetSprintId = sprintId == null || sprintId.isBlank() ? null : sprintId;
+        int issueCount = 0;
+        int skippedIssues = 0;
+        try (CountingInputStream counted = new CountingInputStream(in);
+             JsonParser parser = objectMapper.getFactory().createParser(counted);
+             SprintStagingFile staging = SprintStagingFile.create(stagingFile, objectMapper)) {
+            progress.sources.add(counted);
+            positionAtIssuesArray(parser);
+
+            ArrayNode batch = objectMapper.createArrayNode();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                JsonNode issueNode = parser.readValueAsTree();
+                if (!isValidIssue(issueNode)) {
+                    skippedIssues++;
+                    progress.issuesSkipped.incrementAndGet();
+                    continue;
+                }
+                if (targetSprintId == null) {
+                    targetSprintId = extractSprintId(issueNode);
+                }
+                batch.add(issueNode);
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    staging.appendIssues(batch);
+                    batch = objectMapper.createArrayNode();
+                }
+                issueCount++;
+                if (progress.issuesImported.incrementAndGet() % PROGRESS_LOG_INTERVAL == 0) {
+                    log.info("Import progress: {}", progress.toMap());
+                }
+            }
+            if (!batch.isEmpty()) {
+                staging.appendIssues(batch);
+            }
+        }
+        return new StagedExport(source, targetSprintId, stagingFile, issueCount, skippedIssues);
     }
 
     /**
-     * Refresh the in-memory cache from the database file.
+     * Advance the parser to the start of the issues array: the root itself, or the root object's "issues" field.
+     */
+    private void positionAtIssuesArray(JsonParser parser) throws IOException {
+        JsonToken root = parser.nextToken();
+        if (root == JsonToken.START_ARRAY) {
+            return;
+        }
+        if (root == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && "issues".equals(field)) {
+                    return;
+                }
+                parser.skipChildren();
+            }
+        }
+        throw new IllegalArgumentException("Invalid format: expected 'issues' array");
+    }
+
+    /**
+     * Whether an export entry maps to an {@link Issue} with a key.
+     */
+    private boolean isValidIssue(JsonNode issueNode) {
+        if (!issueNode.isObject() || issueNode.path("key").asText("").isBlank()) {
+            log.warn("Skipping malformed issue: {}", issueNode.path("key").asText("<no key>"));
+            return false;
+        }
+        try {
+            objectMapper.treeToValue(issueNode, Issue.class);
+            return true;
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to parse issue: {}", issueNode.path("key").asText(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Extract the sprint ID from an issue's first sprint.
+     */
+    private String extractSprintId(JsonNode issueNode) {
+        JsonNode id = issueNode.path("fields").path("customfield_10020").path(0).path("id");
+        return id.isMissingNode() || id.isNull() ? null : id.asText();
+    }
+
+    /**
+     * Schedule a reload of every sprint from the database file. The previous generation keeps being served
+     * until the reloaded one is ready.
      */
     public Map<String, Object> refreshCache() {
         log.info("Refreshing sprint database cache");
@@ -151,10 +482,49 @@ public class DataImportService {
         
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("success", true);
-        result.put("message", "Cache cleared. Data will be reloaded on next request.");
+        result.put("message", "Reload scheduled. The previous generation is served until it is ready;"
+                + " meanwhile responses carry the X-Dataset-Staleness header.");
         result.put("timestamp", LocalDateTime.now().toString());
         
         return result;
     }
-}
 
+    /**
+     * Import progress, updated by the importing threads and read by the progress endpoint.
+     */
+    private static final class ImportProgress {
+
+        private final String fileName;
+        private final String startedAt = LocalDateTime.now().toString();
+        private final AtomicInteger issuesImported = new AtomicInteger();
+        private final AtomicInteger issuesSkipped = new AtomicInteger();
+        private final List<CountingInputStream> sources = new CopyOnWriteArrayList<>();
+        private volatile long totalBytes;
+        private volatile boolean running = true;
+
+        ImportProgress(String fileName, long totalBytes) {
+            this.fileName = fileName;
+            this.totalBytes = totalBytes;
+        }
+
+        void finish() {
+            running = false;
+        }
+
+        Map<String, Object> toMap() {
+            long bytesRead = sources.stream().mapToLong(CountingInputStream::getCount).sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("running", running);
+            map.put("fileName", fileName);
+            map.put("startedAt", startedAt);
+            map.put("bytesRead", bytesRead);
+            map.put("totalBytes", totalBytes);
+            if (totalBytes > 0) {
+                map.put("percent", Math.min(100, bytesRead * 100 / totalBytes));
+            }
+            map.put("issuesImported", issuesImported.get());
+            map.put("issuesSkipped", issuesSkipped.get());
+            return map;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.metrics.service;
 
+import com.example.metrics.config.CacheConfig;
+import com.example.metrics.config.DatasetKeyGenerator;
 import com.example.metrics.model.dto.FixVersionSummary;
 import com.example.metrics.model.dto.IssueDetail;
 import com.example.metrics.model.jira.Issue;
 import com.example.metrics.service.datasource.JiraDataSourceManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -18,48 +21,48 @@ import java.util.stream.Collectors;
 public class FixVersionAnalysisService {
     
     private final JiraDataSourceManager dataSourceManager;
+
+    // An issue counts towards each fix version it belongs to
+    private final GroupedResults<FixVersionSummary> versions =
+        new GroupedResults<>("fix versions", this::extractFixVersions, this::calculateVersionSummary);
     
+    @Cacheable(cacheNames = CacheConfig.FIX_VERSION_SUMMARIES, keyGenerator = DatasetKeyGenerator.NAME, sync = true)
     public List<FixVersionSummary> getAllFixVersionSummaries() throws IOException {
-        List<Issue> allIssues = dataSourceManager.fetchIssues(null);
-        
-        // Group issues by fix version
-        Map<String, List<Issue>> issuesByVersion = groupIssuesByFixVersion(allIssues);
-        
-        // Calculate summary for each version
-        return issuesByVersion.entrySet().stream()
-            .map(entry -> calculateVersionSummary(entry.getKey(), entry.getValue()))
-            .filter(Objects::nonNull)
+        // Versions keep their summaries across generations until a change to the issues moves into or out of them
+        return versions.all(dataSourceManager.fetchIssuePartitions(), Set.of()).values().stream()
             .sorted(Comparator.comparing(FixVersionSummary::versionName))
-            .collect(Collectors.toList());
+            .toList();
     }
     
+    @Cacheable(cacheNames = CacheConfig.FIX_VERSION_SUMMARIES, keyGenerator = DatasetKeyGenerator.NAME, sync = true)
     public FixVersionSummary getFixVersionSummary(String versionName) throws IOException {
-        List<Issue> allIssues = dataSourceManager.fetchIssues(null);
-        List<Issue> versionIssues = allIssues.stream()
-            .filter(issue -> hasFixVersion(issue, versionName))
-            .collect(Collectors.toList());
-
-        return calculateVersionSummary(versionName, versionIssues);
+        return versions.get(dataSourceManager.fetchIssuePartitions(), versionName);
     }
 
     /**
      * Get all issues for a fix version with details for UI display.
      * Deduplicates by issue key to avoid showing the same issue multiple times.
      */
+    @Cacheable(cacheNames = CacheConfig.FIX_VERSION_ISSUES, keyGenerator = DatasetKeyGenerator.NAME, sync = true)
     public List<IssueDetail> getFixVersionIssues(String versionName) throws IOException {
-        List<Issue> allIssues = dataSourceManager.fetchIssues(null);
+        List<Issue> versionIssues = getIssuesWithFixVersion(versionName);
 
         // Use LinkedHashMap to preserve order while deduplicating by key
         Map<String, Issue> uniqueIssues = new LinkedHashMap<>();
-        allIssues.stream()
-            .filter(issue -> hasFixVersion(issue, versionName))
-            .forEach(issue -> uniqueIssues.putIfAbsent(issue.getKey(), issue));
+        versionIssues.forEach(issue -> uniqueIssues.putIfAbsent(issue.getKey(), issue));
 
         return uniqueIssues.values().stream()
             .map(this::toIssueDetail)
             .sorted(Comparator.comparing(IssueDetail::issueType)
                 .thenComparing(IssueDetail::key))
-            .collect(Collectors.toList());
+            .toList();
+    }
+
+    /**
+     * Issues with a fix version, as held by the dataset.
+     */
+    public List<Issue> getIssuesWithFixVersion(String versionName) throws IOException {
+        return versions.members(dataSourceManager.fetchIssuePartitions(), versionName);
     }
 
     /**
@@ -142,20 +145,6 @@ public class FixVersionAnalysisService {
             || "Closed".equalsIgnoreCase(status);
     }
 
-    private Map<String, List<Issue>> groupIssuesByFixVersion(List<Issue> issues) {
-        Map<String, List<Issue>> grouped = new HashMap<>();
-        
-        for (Issue issue : issues) {
-            List<String> versions = extractFixVersions(issue);
-            // Assign issue to each fix version it belongs to
-            for (String version : versions) {
-                grouped.computeIfAbsent(version, k -> new ArrayList<>()).add(issue);
-            }
-        }
-        
-        return grouped;
-    }
-    
     @SuppressWarnings("unchecked")
     private List<String> extractFixVersions(Issue issue) {
         if (issue.getFields() == null) {
@@ -180,11 +169,6 @@ public class FixVersionAnalysisService {
         return Collections.emptyList();
     }
     
-    private boolean hasFixVersion(Issue issue, String versionName) {
-        return extractFixVersions(issue).stream()
-            .anyMatch(v -> versionName.equals(v));
-    }
-    
     private FixVersionSummary calculateVersionSummary(String versionName, List<Issue> issues) {
         if (issues.isEmpty()) {
             return null;
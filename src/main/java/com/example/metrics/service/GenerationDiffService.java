@@ -0,0 +1,326 @@
+package com.example.metrics.service;
+
+import com.example.metrics.model.jira.Issue;
+import com.example.metrics.service.datasource.DatasetSnapshot;
+import com.example.metrics.service.datasource.SprintDatabaseDataSource;
+import com.example.metrics.service.storage.IssueContentHash;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Compares two generations of the sprint database issue by issue.
+ * <p>
+ * Only sprints written between the two generations are walked in full; every other sprint is shared
+ * by both snapshots and only looked at for issues that also appear in a written sprint. Issues are
+ * compared by content hash, so copies that were re-fetched without changing count as unchanged.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GenerationDiffService {
+
+    private final ObjectMapper objectMapper;
+    private final SprintDatabaseDataSource sprintDatabaseSource;
+
+    /**
+     * Differences between two generations, sorted by issue key.
+     */
+    public record GenerationDiff(long from, long to, List<IssueChange> issues, List<SprintChange> sprints,
+                                 List<VersionChange> versions) {
+
+        public long count(ChangeType type) {
+            return issues.stream().filter(issue -> issue.type() == type).count();
+        }
+    }
+
+    public enum ChangeType { ADDED, REMOVED, CHANGED }
+
+    /**
+     * @param before         state in the "from" generation, null if the issue was added
+     * @param after          state in the "to" generation, null if the issue was removed
+     * @param contentChanged whether the issue's content hash differs between the two generations
+     */
+    public record IssueChange(String key, ChangeType type, IssueState before, IssueState after,
+                              boolean contentChanged) {}
+
+    public record IssueState(String status, List<String> fixVersions, Set<String> sprints) {}
+
+    /**
+     * @param issuesBefore issues in the sprint in the "from" generation, null if the sprint did not exist
+     * @param issuesAfter  issues in the sprint in the "to" generation, null if the sprint does not exist
+     */
+    public record SprintChange(String sprintId, Integer issuesBefore, Integer issuesAfter,
+                               int added, int removed, int changed) {}
+
+    public record VersionChange(String version, int added, int removed, int changed) {}
+
+    /**
+     * Compare two generations.
+     *
+     * @param from generation to compare from, or null for the one before {@code to}
+     * @param to   generation to compare to, or null for the current one
+     * @throws IllegalArgumentException if either generation does not exist or is no longer retained
+     */
+    public GenerationDiff compare(Long from, Long to) throws IOException {
+        DatasetSnapshot after = to != null ? sprintDatabaseSource.snapshot(to) : sprintDatabaseSource.snapshot();
+        DatasetSnapshot before = sprintDatabaseSource.snapshot(from != null ? from : after.getGeneration() - 1);
+        Set<String> changedSprints = before.changedSprints(after);
+
+        // Issues of the written sprints, plus their copies in untouched sprints
+        Set<String> keys = new TreeSet<>();
+        collectKeys(before, changedSprints, keys);
+        collectKeys(after, changedSprints, keys);
+        Map<String, Sighting> beforeSightings = collectSightings(before, changedSprints, keys);
+        Map<String, Sighting> afterSightings = collectSightings(after, changedSprints, keys);
+
+        Map<Issue, String> hashes = new IdentityHashMap<>();
+        List<IssueChange> issues = new ArrayList<>();
+        for (String key : keys) {
+            Sighting was = beforeSightings.get(key);
+            Sighting is = afterSightings.get(key);
+            if (was == null) {
+                issues.add(new IssueChange(key, ChangeType.ADDED, null, is.state(), true));
+            } else if (is == null) {
+                issues.add(new IssueChange(key, ChangeType.REMOVED, was.state(), null, true));
+            } else {
+                boolean contentChanged = was.issue() != is.issue() && !sameContent(was.issue(), is.issue(), hashes);
+                if (contentChanged || !was.sprints().equals(is.sprints())) {
+                    issues.add(new IssueChange(key, ChangeType.CHANGED, was.state(), is.state(), contentChanged));
+                }
+            }
+        }
+
+        GenerationDiff diff = new GenerationDiff(before.getGeneration(), after.getGeneration(), issues,
+                sprintChanges(before, after, changedSprints, issues), versionChanges(issues));
+        log.info("Generation {} -> {}: {} added, {} removed, {} changed across {} written sprint(s)",
+                diff.from(), diff.to(), diff.count(ChangeType.ADDED), diff.count(ChangeType.REMOVED),
+                diff.count(ChangeType.CHANGED), changedSprints.size());
+        return diff;
+    }
+
+    /**
+     * Write a diff as JSON, one issue at a time.
+     */
+    public void write(GenerationDiff diff, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeNumberField("from", diff.from());
+            json.writeNumberField("to", diff.to());
+            json.writeObjectFieldStart("totals");
+            json.writeNumberField("added", diff.count(ChangeType.ADDED));
+            json.writeNumberField("removed", diff.count(ChangeType.REMOVED));
+            json.writeNumberField("changed", diff.count(ChangeType.CHANGED));
+            json.writeNumberField("sprints", diff.sprints().size());
+            json.writeNumberField("versions", diff.versions().size());
+            json.writeEndObject();
+
+            for (ChangeType type : ChangeType.values()) {
+                json.writeArrayFieldStart(type.name().toLowerCase());
+                for (IssueChange issue : diff.issues()) {
+                    if (issue.type() == type) {
+                        writeIssue(json, issue);
+                    }
+                }
+                json.writeEndArray();
+            }
+
+            json.writeFieldName("sprints");
+            objectMapper.writeValue(json, diff.sprints());
+            json.writeFieldName("versions");
+            objectMapper.writeValue(json, diff.versions());
+            json.writeEndObject();
+        }
+    }
+
+    private void writeIssue(JsonGenerator json, IssueChange issue) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("key", issue.key());
+        switch (issue.type()) {
+            case ADDED, REMOVED -> {
+                IssueState state = issue.after() != null ? issue.after() : issue.before();
+                json.writeStringField("status", state.status());
+                json.writeFieldName("sprints");
+                objectMapper.writeValue(json, state.sprints());
+                json.writeFieldName("fixVersions");
+                objectMapper.writeValue(json, state.fixVersions());
+            }
+            case CHANGED -> {
+                IssueState before = issue.before();
+                IssueState after = issue.after();
+                if (!Objects.equals(before.status(), after.status())) {
+                    json.writeObjectFieldStart("status");
+                    json.writeStringField("from", before.status());
+                    json.writeStringField("to", after.status());
+                    json.writeEndObject();
+                }
+                if (!before.sprints().equals(after.sprints())) {
+                    json.writeObjectFieldStart("sprints");
+                    json.writeFieldName("added");
+                    objectMapper.writeValue(json, minus(after.sprints(), before.sprints()));
+                    json.writeFieldName("removed");
+                    objectMapper.writeValue(json, minus(before.sprints(), after.sprints()));
+                    json.writeEndObject();
+                }
+                if (!before.fixVersions().equals(after.fixVersions())) {
+                    json.writeObjectFieldStart("fixVersions");
+                    json.writeFieldName("from");
+                    objectMapper.writeValue(json, before.fixVersions());
+                    json.writeFieldName("to");
+                    objectMapper.writeValue(json, after.fixVersions());
+                    json.writeEndObject();
+                }
+                json.writeBooleanField("contentChanged", issue.contentChanged());
+            }
+        }
+        json.writeEndObject();
+    }
+
+    /**
+     * Copy of an issue in one generation, and every sprint it appears in there.
+     * When an issue is in several sprints, the copy from the last one (the most recently added) is kept.
+     */
+    private record Sighting(Issue issue, Set<String> sprints) {
+
+        IssueState state() {
+            return new IssueState(status(issue), fixVersions(issue), sprints);
+        }
+    }
+
+    private static void collectKeys(DatasetSnapshot snapshot, Set<String> changedSprints, Set<String> keys) {
+        for (String sprintId : changedSprints) {
+            List<Issue> issues = snapshot.getSprintIssues(sprintId);
+            if (issues != null) {
+                for (Issue issue : issues) {
+                    if (issue.getKey() != null) {
+                        keys.add(issue.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    private static Map<String, Sighting> collectSightings(DatasetSnapshot snapshot, Set<String> changedSprints,
+                                                          Set<String> keys) {
+        Map<String, Sighting> sightings = new HashMap<>();
+        for (String sprintId : snapshot.getSprintIds()) {
+            boolean changed = changedSprints.contains(sprintId);
+            for (Issue issue : snapshot.getSprintIssues(sprintId)) {
+                String key = issue.getKey();
+                if (key == null || (!changed && !keys.contains(key))) {
+                    continue;
+                }
+                Sighting previous = sightings.get(key);
+                Set<String> sprints = previous != null ? previous.sprints() : new LinkedHashSet<>();
+                sprints.add(sprintId);
+                sightings.put(key, new Sighting(issue, sprints));
+            }
+        }
+        return sightings;
+    }
+
+    private static List<SprintChange> sprintChanges(DatasetSnapshot before, DatasetSnapshot after,
+                                                    Set<String> changedSprints, List<IssueChange> issues) {
+        List<SprintChange> sprints = new ArrayList<>();
+        for (String sprintId : changedSprints) {
+            List<Issue> was = before.getSprintIssues(sprintId);
+            List<Issue> is = after.getSprintIssues(sprintId);
+            int added = 0;
+            int removed = 0;
+            int changed = 0;
+            for (IssueChange issue : issues) {
+                boolean inBefore = issue.before() != null && issue.before().sprints().contains(sprintId);
+                boolean inAfter = issue.after() != null && issue.after().sprints().contains(sprintId);
+                if (inAfter && !inBefore) {
+                    added++;
+                } else if (inBefore && !inAfter) {
+                    removed++;
+                } else if (inBefore && issue.contentChanged()) {
+                    changed++;
+                }
+            }
+            sprints.add(new SprintChange(sprintId, was != null ? was.size() : null, is != null ? is.size() : null,
+                    added, removed, changed));
+        }
+        return sprints;
+    }
+
+    private static List<VersionChange> versionChanges(List<IssueChange> issues) {
+        Map<String, int[]> counts = new TreeMap<>();
+        for (IssueChange issue : issues) {
+            List<String> was = issue.before() != null ? issue.before().fixVersions() : List.of();
+            List<String> is = issue.after() != null ? issue.after().fixVersions() : List.of();
+            for (String version : is) {
+                if (!was.contains(version)) {
+                    counts.computeIfAbsent(version, v -> new int[3])[0]++;
+                } else if (issue.contentChanged()) {
+                    counts.computeIfAbsent(version, v -> new int[3])[2]++;
+                }
+            }
+            for (String version : was) {
+                if (!is.contains(version)) {
+                    counts.computeIfAbsent(version, v -> new int[3])[1]++;
+                }
+            }
+        }
+        List<VersionChange> versions = new ArrayList<>();
+        counts.forEach((version, count) -> versions.add(new VersionChange(version, count[0], count[1], count[2])));
+        return versions;
+    }
+
+    /**
+     * Compare stored content hashes, or hashes of the parsed issues if either was stored without one.
+     */
+    private boolean sameContent(Issue was, Issue is, Map<Issue, String> hashes) {
+        if (was.getContentHash() != null && is.getContentHash() != null) {
+            return was.getContentHash().equals(is.getContentHash());
+        }
+        return hash(was, hashes).equals(hash(is, hashes));
+    }
+
+    private String hash(Issue issue, Map<Issue, String> hashes) {
+        return hashes.computeIfAbsent(issue, i -> IssueContentHash.of(objectMapper.valueToTree(i)));
+    }
+
+    private static String status(Issue issue) {
+        return issue.getFields() != null && issue.getFields().getStatus() != null
+                ? issue.getFields().getStatus().getName() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> fixVersions(Issue issue) {
+        if (issue.getFields() == null || !(issue.getFields().getCustomField("fixVersions") instanceof List<?> list)) {
+            return List.of();
+        }
+        List<String> versions = new ArrayList<>();
+        for (Object version : list) {
+            if (version instanceof Map && ((Map<String, Object>) version).get("name") != null) {
+                versions.add(((Map<String, Object>) version).get("name").toString());
+            }
+        }
+        return versions;
+    }
+
+    private static List<String> minus(Collection<String> all, Collection<String> removed) {
+        List<String> result = new ArrayList<>(all);
+        result.removeAll(removed);
+        return result;
+    }
+}
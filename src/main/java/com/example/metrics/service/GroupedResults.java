@@ -0,0 +1,159 @@
+package com.example.metrics.service;
+
+import com.example.metrics.model.jira.Issue;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Results computed per group of issues (a sprint, a fix version), kept up to date incrementally.
+ * <p>
+ * Issues come in partitions, the sprints of the sprint master database, and a partition that did not change
+ * between two generations is the very same list. Each partition is split into groups once. When the issues
+ * move to another generation, the groups that have issues in a changed partition, before or after the change
+ * (so an issue moving from one group to another affects both), lose their result; every other group keeps it.
+ *
+ * @param <R> result per group
+ */
+@Slf4j
+final class GroupedResults<R> {
+
+    private final String name;
+    private final Function<Issue, Collection<String>> groupsOf;
+    private final BiFunction<String, List<Issue>, R> compute;
+    private final Cache<List<Issue>, Map<String, List<Issue>>> splits = Caffeine.newBuilder().weakKeys().build();
+    private Map<String, List<Issue>> partitions = Map.of();
+    private Map<String, R> results = new HashMap<>();
+
+    /**
+     * @param groupsOf groups an issue belongs to
+     * @param compute  result of a group from its issues; null for no result
+     */
+    GroupedResults(String name, Function<Issue, Collection<String>> groupsOf,
+                   BiFunction<String, List<Issue>, R> compute) {
+        this.name = name;
+        this.groupsOf = groupsOf;
+        this.compute = compute;
+    }
+
+    /**
+     * Results of every group, except the skipped ones, by group.
+     */
+    synchronized Map<String, R> all(Map<String, List<Issue>> issuePartitions, Set<String> skippedGroups) {
+        advance(issuePartitions);
+        Set<String> groups = new LinkedHashSet<>();
+        for (List<Issue> partition : partitions.values()) {
+            groups.addAll(split(partition).keySet());
+        }
+        groups.removeAll(skippedGroups);
+        Map<String, R> all = new LinkedHashMap<>();
+        for (String group : groups) {
+            R result = result(group);
+            if (result != null) {
+                all.put(group, result);
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Result of one group, or null if it has no issues.
+     */
+    synchronized R get(Map<String, List<Issue>> issuePartitions, String group) {
+        advance(issuePartitions);
+        return result(group);
+    }
+
+    /**
+     * Issues of one group, in partition order.
+     */
+    synchronized List<Issue> members(Map<String, List<Issue>> issuePartitions, String group) {
+        advance(issuePartitions);
+        return members(group);
+    }
+
+    /**
+     * Groups that have issues in a partition.
+     */
+    synchronized Set<String> groupsIn(List<Issue> partition) {
+        return Collections.unmodifiableSet(split(partition).keySet());
+    }
+
+    private R result(String group) {
+        R result = results.get(group);
+        if (result == null) {
+            List<Issue> members = members(group);
+            result = members.isEmpty() ? null : compute.apply(group, members);
+            if (result != null) {
+                results.put(group, result);
+            }
+        }
+        return result;
+    }
+
+    private List<Issue> members(String group) {
+        List<Issue> members = new ArrayList<>();
+        for (List<Issue> partition : partitions.values()) {
+            List<Issue> groupIssues = split(partition).get(group);
+            if (groupIssues != null) {
+                members.addAll(groupIssues);
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Move to another set of partitions, dropping the results of the groups that changed.
+     */
+    private void advance(Map<String, List<Issue>> issuePartitions) {
+        Set<String> partitionIds = new HashSet<>(partitions.keySet());
+        partitionIds.addAll(issuePartitions.keySet());
+        Set<String> affected = new HashSet<>();
+        int changedPartitions = 0;
+        for (String partitionId : partitionIds) {
+            List<Issue> before = partitions.get(partitionId);
+            List<Issue> after = issuePartitions.get(partitionId);
+            if (before == after) {
+                continue;
+            }
+            changedPartitions++;
+            if (before != null) {
+                affected.addAll(split(before).keySet());
+            }
+            if (after != null) {
+                affected.addAll(split(after).keySet());
+            }
+        }
+        partitions = issuePartitions;
+        if (changedPartitions > 0) {
+            results.keySet().removeAll(affected);
+            log.debug("{}: {} changed partitions affect {} groups, {} results kept",
+                    name, changedPartitions, affected.size(), results.size());
+        }
+    }
+
+    private Map<String, List<Issue>> split(List<Issue> partition) {
+        return splits.get(partition, issues -> {
+            Map<String, List<Issue>> groups = new LinkedHashMap<>();
+            for (Issue issue : issues) {
+                for (String group : new LinkedHashSet<>(groupsOf.apply(issue))) {
+                    groups.computeIfAbsent(group, g -> new ArrayList<>()).add(issue);
+                }
+            }
+            return groups;
+        });
+    }
+}
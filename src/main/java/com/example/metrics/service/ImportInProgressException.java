@@ -0,0 +1,11 @@
+package com.example.metrics.service;
+
+/**
+ * Thrown when an import is started while another one is still running.
+ */
+public class ImportInProgressException extends IllegalStateException {
+
+    public ImportInProgressException(String fileName) {
+        super("Another import is running: " + fileName);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.metrics.service;
+
+import com.example.metrics.model.jira.Issue;
+import com.example.metrics.service.datasource.JiraDataSourceManager;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Export of issues as NDJSON, one issue per line, written while the issues are iterated.
+ * <p>
+ * Selecting the issues only collects references to those the dataset already holds, so it is cheap and
+ * can run where the dataset snapshot is pinned; writing can then run on another thread.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IssueExportService {
+
+    private static final int FLUSH_EVERY = 256;
+
+    private final JiraDataSourceManager dataSourceManager;
+    private final SprintAnalysisService sprintAnalysisService;
+    private final FixVersionAnalysisService fixVersionAnalysisService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Issues to export; each filter is null when not set.
+     *
+     * @param sprint  sprint name the issue was in at any point
+     * @param version fix version name
+     * @param type    issue type name, ignoring case
+     */
+    public record Filter(String sprint, String version, String type) {
+    }
+
+    /**
+     * Issues selected for an export, in dataset order, still to be filtered by type.
+     */
+    public record Selection(List<List<Issue>> issues, String type) {
+    }
+
+    /**
+     * Select the issues of the current dataset snapshot that pass the sprint and version filters.
+     */
+    public Selection select(Filter filter) throws IOException {
+        if (filter.sprint() == null && filter.version() == null) {
+            return new Selection(List.copyOf(dataSourceManager.fetchIssuePartitions().values()), filter.type());
+        }
+        List<Issue> selected = filter.sprint() != null
+            ? sprintAnalysisService.getIssuesInSprint(filter.sprint())
+            : fixVersionAnalysisService.getIssuesWithFixVersion(filter.version());
+        if (filter.sprint() != null && filter.version() != null) {
+            // Both come from the same dataset, so the same issue is the same object
+            Set<Issue> inVersion = Collections.newSetFromMap(new IdentityHashMap<>());
+            inVersion.addAll(fixVersionAnalysisService.getIssuesWithFixVersion(filter.version()));
+            selected = selected.stream().filter(inVersion::contains).toList();
+        }
+        return new Selection(List.of(selected), filter.type());
+    }
+
+    /**
+     * Write the selected issues, one JSON object per line, skipping issues whose key was already written.
+     * Output is flushed after the first issue and then every {@value #FLUSH_EVERY}, so the first bytes go out
+     * at once whatever the size of the export.
+     *
+     * @return the number of issues written
+     */
+    public int write(Selection selection, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Issue.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        Set<String> written = new HashSet<>();
+        int count = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            for (List<Issue> issues : selection.issues()) {
+                for (Issue issue : issues) {
+                    if (!hasType(issue, selection.type()) || !written.add(issue.getKey())) {
+                        continue;
+                    }
+                    writer.writeValue(json, issue);
+                    json.writeRaw('\n');
+                    if (++count % FLUSH_EVERY == 1) {
+                        json.flush();
+                    }
+                }
+            }
+        }
+        log.debug("Exported {} issues", count);
+        return count;
+    }
+
+    private static boolean hasType(Issue issue, String type) {
+        return type == null || (issue.getFields() != null
+            && issue.getFields().getIssuetype() != null
+            && type.equalsIgnoreCase(issue.getFields().getIssuetype().getName()));
+    }
+}
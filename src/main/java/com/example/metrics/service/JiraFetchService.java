@@ -1,6 +1,17 @@
 package com.example.metrics.service;
 
+import com.example.metrics.config.JiraProperties;
 import com.example.metrics.service.datasource.SprintDatabaseDataSource;
+import com.example.metrics.service.fetch.BoardSprintDiscovery;
+import com.example.metrics.service.fetch.ChangelogCompleter;
+import com.example.metrics.service.fetch.FetchCheckpointStore;
+import com.example.metrics.service.fetch.FetchCheckpointStore.SprintProgress;
+import com.example.metrics.service.fetch.IssueRunCache;
+import com.example.metrics.service.fetch.JiraHttpClient;
+import com.example.metrics.service.fetch.JiraHttpException;
+import com.example.metrics.service.fetch.KeyRangePartitioner;
+import com.example.metrics.service.fetch.SprintStagingFile;
+import com.example.metrics.service.storage.SprintDatabaseStore;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -9,14 +20,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Service for fetching sprint data directly from Jira using session credentials.
@@ -26,15 +41,24 @@ import java.util.*;
 @RequiredArgsConstructor
 public class JiraFetchService {
 
-    private static final String BASE_URL = "https://gspcloud.atlassian.net/rest/api/3/search/jql";
-    private static final String SPRINT_API_URL = "https://gspcloud.atlassian.net/rest/agile/1.0/sprint/";
+    private static final String SEARCH_PATH = "/rest/api/3/search/jql";
+    private static final String APPROXIMATE_COUNT_PATH = "/rest/api/3/search/approximate-count";
+    private static final String SPRINT_API_PATH = "/rest/agile/1.0/sprint/";
     private static final String TEAM_ID = "8cd48340-f038-4a23-8787-2489ff459cf0";
     private static final String PROJECT = "GPE Discovery Engineering CMS";
-    private static final String DATABASE_FILE = "tools/jira-sprint-database.json";
     private static final int MAX_RESULTS = 100;
+    private static final int MAX_PARTITIONS = 8;
+    private static final int MAX_CONCURRENT_PARTITIONS = 4;
+    private static final int KEY_BATCH_SIZE = 100;
 
     private final ObjectMapper objectMapper;
     private final SprintDatabaseDataSource sprintDatabaseSource;
+    private final FetchCheckpointStore checkpointStore;
+    private final SprintDatabaseStore databaseStore;
+    private final JiraHttpClient jiraHttpClient;
+    private final ChangelogCompleter changelogCompleter;
+    private final BoardSprintDiscovery boardSprintDiscovery;
+    private final JiraProperties jiraProperties;
 
     /**
      * DTO for session credentials.
@@ -48,6 +72,27 @@ public class JiraFetchService {
         }
     }
 
+    /**
+     * A fully fetched sprint waiting in its staging file to be promoted into the database.
+     */
+    private record StagedSprint(String sprintId, Path stagingFile, int issueCount) {}
+
+    /**
+     * Receives each page of issues from a search.
+     */
+    @FunctionalInterface
+    private interface PageSink {
+        void accept(JsonNode issues) throws Exception;
+    }
+
+    /**
+     * Records the token of the next page after a page has been consumed.
+     */
+    @FunctionalInterface
+    private interface PageCheckpoint {
+        void record(String nextPageToken) throws IOException;
+    }
+
     /**
      * Update active sprints (delta update).
      * Finds active sprints and re-fetches their data.
@@ -60,16 +105,14 @@ public class JiraFetchService {
         result.put("operation", "deltaUpdate");
         result.put("startTime", LocalDateTime.now(ZoneId.systemDefault()).toString());
 
-        // Load existing database
-        ObjectNode masterDb = loadMasterDatabase();
-        ObjectNode sprints = (ObjectNode) masterDb.path("sprints");
+        // Load existing sprint IDs and issue counts (issues stay on disk)
+        Map<String, Integer> sprintIssueCounts = databaseStore.readSprintIssueCounts();
+        long fromGeneration = databaseStore.getManifest().generation();
         
         // Find active sprints
         List<String> activeSprintIds = new ArrayList<>();
-        Iterator<String> sprintIds = sprints.fieldNames();
         
-        while (sprintIds.hasNext()) {
-            String sprintId = sprintIds.next();
+        for (String sprintId : sprintIssueCounts.keySet()) {
             try {
                 String state = getSprintState(sprintId, cookieHeader);
                 log.info("Sprint {} state: {}", sprintId, state);
@@ -90,22 +133,28 @@ public class JiraFetchService {
             return result;
         }
 
-        // Update each active sprint
+        // Update each active sprint, committing each one as soon as it completes
         List<Map<String, Object>> updates = new ArrayList<>();
-        for (String sprintId : activeSprintIds) {
-            Map<String, Object> updateInfo = updateSprint(sprintId, cookieHeader, masterDb);
-            updates.add(updateInfo);
+        IssueRunCache issueCache = new IssueRunCache(objectMapper);
+        try {
+            for (String sprintId : activeSprintIds) {
+                Map<String, Object> updateInfo = updateSprint(sprintId, cookieHeader,
+                        sprintIssueCounts.getOrDefault(sprintId, 0), issueCache);
+                updates.add(updateInfo);
+            }
+        } finally {
+            // Publish so committed sprints are visible even if a later sprint failed
+            if (!updates.isEmpty()) {
+                sprintDatabaseSource.refresh();
+            }
         }
 
-        // Save database
-        masterDb.put("lastUpdated", LocalDateTime.now(ZoneId.systemDefault()).toString());
-        saveMasterDatabase(masterDb);
-        
-        // Clear cache
-        sprintDatabaseSource.clearCache();
-
         result.put("updates", updates);
         result.put("updated", updates.size());
+        // GET /api/admin/diff?from=...&to=... lists the issues this update changed
+        result.put("fromGeneration", fromGeneration);
+        result.put("toGeneration", databaseStore.getManifest().generation());
+        result.put("issueCache", issueCache.getStats());
         result.put("endTime", LocalDateTime.now(ZoneId.systemDefault()).toString());
         result.put("success", true);
 
@@ -114,24 +163,31 @@ public class JiraFetchService {
 
     /**
      * Fetch new sprints that are not in the database.
+     * Sprints are discovered incrementally from the agile board listing. Reconciliation mode
+     * additionally scans every team issue for sprint membership and re-lists the whole board,
+     * catching sprints the board does not list.
      */
-    public Map<String, Object> fetchNewSprints(JiraCredentials credentials) throws Exception {
-        log.info("Starting full fetch for new sprints");
+    public Map<String, Object> fetchNewSprints(JiraCredentials credentials, boolean reconcile) throws Exception {
+        log.info("Starting fetch for new sprints ({} discovery)", reconcile ? "reconciliation" : "board");
         String cookieHeader = credentials.toCookieHeader();
         
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("operation", "fetchNewSprints");
+        result.put("discoveryMode", reconcile ? "reconcile" : "board");
         result.put("startTime", LocalDateTime.now(ZoneId.systemDefault()).toString());
 
-        // Load existing database
-        ObjectNode masterDb = loadMasterDatabase();
-        ObjectNode sprints = (ObjectNode) masterDb.path("sprints");
-        Set<String> existingSprintIds = new HashSet<>();
-        sprints.fieldNames().forEachRemaining(existingSprintIds::add);
+        // Load existing sprint IDs (issues stay on disk)
+        Set<String> existingSprintIds = new HashSet<>(databaseStore.readSprintIssueCounts().keySet());
 
-        // Discover all sprints from Jira
-        Set<String> allSprintIds = discoverSprints(cookieHeader);
+        // Discover sprints from the board, from its saved cursor unless reconciling
+        BoardSprintDiscovery.Discovery discovery = boardSprintDiscovery.discover(jiraProperties.boardId(), reconcile,
+                cookieHeader);
+        Set<String> allSprintIds = new HashSet<>(discovery.sprintIds());
+        if (reconcile) {
+            allSprintIds.addAll(discoverSprintsFromIssues(cookieHeader));
+        }
         result.put("totalSprintsInJira", allSprintIds.size());
+        result.put("sprintsNewOnBoard", discovery.newSprintIds().size());
         result.put("existingSprintsInDb", existingSprintIds.size());
 
         // Find new sprints
@@ -140,28 +196,45 @@ public class JiraFetchService {
         result.put("newSprintsToFetch", newSprintIds.size());
 
         if (newSprintIds.isEmpty()) {
+            boardSprintDiscovery.commit(discovery);
             result.put("message", "All sprints already in database. Nothing to fetch.");
             result.put("fetched", 0);
             return result;
         }
 
-        // Fetch new sprints
-        List<Map<String, Object>> fetched = new ArrayList<>();
-        for (String sprintId : newSprintIds) {
-            Map<String, Object> fetchInfo = fetchAndSaveSprint(sprintId, cookieHeader, masterDb);
-            fetched.add(fetchInfo);
+        // Resume interrupted sprints from the checkpoint first, then fetch the rest
+        List<String> orderedSprintIds = new ArrayList<>();
+        List<String> resumedSprintIds = new ArrayList<>();
+        for (String sprintId : checkpointStore.getInProgressSprintIds()) {
+            if (newSprintIds.contains(sprintId)) {
+                orderedSprintIds.add(sprintId);
+                resumedSprintIds.add(sprintId);
+            }
         }
+        newSprintIds.stream()
+                .filter(sprintId -> !resumedSprintIds.contains(sprintId))
+                .forEach(orderedSprintIds::add);
+        result.put("resumedSprintIds", resumedSprintIds);
 
-        // Save database
-        masterDb.put("lastUpdated", LocalDateTime.now(ZoneId.systemDefault()).toString());
-        masterDb.put("totalSprints", sprints.size());
-        saveMasterDatabase(masterDb);
-        
-        // Clear cache
-        sprintDatabaseSource.clearCache();
+        // Fetch new sprints, committing each one as soon as it completes
+        List<Map<String, Object>> fetched = new ArrayList<>();
+        IssueRunCache issueCache = new IssueRunCache(objectMapper);
+        try {
+            for (String sprintId : orderedSprintIds) {
+                Map<String, Object> fetchInfo = fetchAndSaveSprint(sprintId, cookieHeader, issueCache);
+                fetched.add(fetchInfo);
+            }
+            boardSprintDiscovery.commit(discovery);
+        } finally {
+            // Publish so committed sprints are visible even if a later sprint failed
+            if (!fetched.isEmpty()) {
+                sprintDatabaseSource.refresh();
+            }
+        }
 
         result.put("fetched", fetched);
         result.put("totalFetched", fetched.size());
+        result.put("issueCache", issueCache.getStats());
         result.put("endTime", LocalDateTime.now(ZoneId.systemDefault()).toString());
         result.put("success", true);
 
@@ -170,12 +243,35 @@ public class JiraFetchService {
 
     // ========== Helper Methods ==========
 
+    /**
+     * Promote a staged sprint into the database as soon as it completes, then drop its checkpoint.
+     * A failure on a later sprint no longer discards sprints that were already fetched.
+     */
+    private SprintDatabaseStore.SprintWrite commitSprint(StagedSprint staged) throws Exception {
+        SprintDatabaseStore.SprintWrite write = databaseStore.replaceSprints(
+                Map.of(staged.sprintId(), databaseStore.fromNdjson(staged.stagingFile()))).get(staged.sprintId());
+        checkpointStore.clear(staged.sprintId());
+        log.info("Sprint {} committed to master database ({} changed, {} unchanged, {} removed issues)",
+                staged.sprintId(), write.changedIssues(), write.unchangedIssues(), write.removedIssues());
+        return write;
+    }
+
+    /**
+     * Report how many issues actually changed; a sprint with no changes is not rewritten.
+     */
+    private static void putChangeCounts(Map<String, Object> info, SprintDatabaseStore.SprintWrite write) {
+        info.put("written", write.written());
+        info.put("changedIssues", write.changedIssues());
+        info.put("unchangedIssues", write.unchangedIssues());
+        info.put("removedIssues", write.removedIssues());
+    }
+
     /**
      * Get sprint state from Jira Agile API.
      */
     private String getSprintState(String sprintId, String cookieHeader) throws Exception {
-        String url = SPRINT_API_URL + sprintId;
-        JsonNode response = makeRequest(url, cookieHeader);
+        String url = jiraProperties.url(SPRINT_API_PATH + sprintId);
+        JsonNode response = jiraHttpClient.get(url, cookieHeader);
         if (response != null && response.has("state")) {
             return response.get("state").asText();
         }
@@ -185,188 +281,317 @@ public class JiraFetchService {
     /**
      * Update a single sprint in the database.
      */
-    private Map<String, Object> updateSprint(String sprintId, String cookieHeader, ObjectNode masterDb) throws Exception {
-        ObjectNode sprints = (ObjectNode) masterDb.path("sprints");
-        JsonNode oldSprint = sprints.get(sprintId);
-        int oldIssueCount = oldSprint != null ? oldSprint.path("totalIssues").asInt(0) : 0;
-
+    private Map<String, Object> updateSprint(String sprintId, String cookieHeader, int oldIssueCount,
+                                             IssueRunCache issueCache) throws Exception {
         log.info("Updating sprint {}...", sprintId);
-        ObjectNode sprintData = fetchSprintIssues(sprintId, cookieHeader);
-        int newIssueCount = sprintData.path("totalIssues").asInt(0);
+        StagedSprint staged = fetchSprintIssues(sprintId, cookieHeader, issueCache);
+        int newIssueCount = staged.issueCount();
 
-        sprints.set(sprintId, sprintData);
+        SprintDatabaseStore.SprintWrite write = commitSprint(staged);
 
         Map<String, Object> info = new LinkedHashMap<>();
         info.put("sprintId", sprintId);
         info.put("oldIssueCount", oldIssueCount);
         info.put("newIssueCount", newIssueCount);
         info.put("delta", newIssueCount - oldIssueCount);
+        putChangeCounts(info, write);
         return info;
     }
 
     /**
      * Fetch and save a new sprint to the database.
      */
-    private Map<String, Object> fetchAndSaveSprint(String sprintId, String cookieHeader, ObjectNode masterDb) throws Exception {
+    private Map<String, Object> fetchAndSaveSprint(String sprintId, String cookieHeader, IssueRunCache issueCache)
+            throws Exception {
         log.info("Fetching sprint {}...", sprintId);
-        ObjectNode sprintData = fetchSprintIssues(sprintId, cookieHeader);
-        int issueCount = sprintData.path("totalIssues").asInt(0);
+        StagedSprint staged = fetchSprintIssues(sprintId, cookieHeader, issueCache);
+        int issueCount = staged.issueCount();
 
-        ObjectNode sprints = (ObjectNode) masterDb.path("sprints");
-        sprints.set(sprintId, sprintData);
+        SprintDatabaseStore.SprintWrite write = commitSprint(staged);
 
         Map<String, Object> info = new LinkedHashMap<>();
         info.put("sprintId", sprintId);
         info.put("issueCount", issueCount);
+        putChangeCounts(info, write);
         return info;
     }
 
     /**
-     * Discover all sprint IDs from team issues.
+     * Discover all sprint IDs by scanning the sprint field of every team issue.
+     * Slow on an old project; only used for reconciliation.
      */
-    private Set<String> discoverSprints(String cookieHeader) throws Exception {
-        Set<String> sprintIds = new HashSet<>();
+    private Set<String> discoverSprintsFromIssues(String cookieHeader) throws Exception {
+        Set<String> sprintIds = ConcurrentHashMap.newKeySet();
         String jql = "project = \"" + PROJECT + "\" AND \"Team[Team]\" = " + TEAM_ID;
-        String nextPageToken = null;
-        boolean isLast = false;
-
-        do {
-            String url = BASE_URL + "?jql=" + URLEncoder.encode(jql, StandardCharsets.UTF_8) +
-                        "&fields=customfield_10020" +
-                        "&maxResults=" + MAX_RESULTS;
-
-            if (nextPageToken != null) {
-                url += "&nextPageToken=" + URLEncoder.encode(nextPageToken, StandardCharsets.UTF_8);
-            }
-
-            JsonNode response = makeRequest(url, cookieHeader);
-            if (response == null) break;
 
-            isLast = response.path("isLast").asBoolean(true);
-            JsonNode issues = response.get("issues");
-
-            if (issues != null && issues.isArray()) {
-                for (JsonNode issue : issues) {
-                    JsonNode sprintField = issue.path("fields").path("customfield_10020");
-                    if (sprintField.isArray()) {
-                        for (JsonNode sprint : sprintField) {
-                            if (sprint.has("id")) {
-                                sprintIds.add(String.valueOf(sprint.get("id").asInt()));
-                            }
+        searchPartitioned(jql, "customfield_10020", false, cookieHeader, issues -> {
+            for (JsonNode issue : issues) {
+                JsonNode sprintField = issue.path("fields").path("customfield_10020");
+                if (sprintField.isArray()) {
+                    for (JsonNode sprint : sprintField) {
+                        if (sprint.has("id")) {
+                            sprintIds.add(String.valueOf(sprint.get("id").asInt()));
                         }
                     }
                 }
             }
-
-            JsonNode nextToken = response.get("nextPageToken");
-            nextPageToken = (nextToken != null && !nextToken.isNull()) ? nextToken.asText() : null;
-
             log.info("Discovered {} unique sprints so far...", sprintIds.size());
+        }, null);
 
-        } while (!isLast && nextPageToken != null);
-
-        return sprintIds;
+        return new HashSet<>(sprintIds);
     }
 
     /**
      * Fetch all issues for a sprint with changelog.
+     * Pages are streamed straight into the sprint's staging file, so fetch memory is bounded by
+     * one page. Large sprints are split into key ranges fetched concurrently; sequential fetches
+     * are checkpointed, and one interrupted by a previous run resumes from its nextPageToken.
+     * A sprint fetched in key ranges has no checkpoint and is fetched again from the start.
+     * Once the run's issue cache holds payloads, sprints are listed by key first and only
+     * issues missing from the cache are fetched in full.
      */
-    private ObjectNode fetchSprintIssues(String sprintId, String cookieHeader) throws Exception {
-        ArrayNode allIssues = objectMapper.createArrayNode();
+    private StagedSprint fetchSprintIssues(String sprintId, String cookieHeader, IssueRunCache issueCache)
+            throws Exception {
         String jql = "Sprint = " + sprintId;
-        String nextPageToken = null;
-        boolean isLast = false;
+        Optional<SprintProgress> progress = checkpointStore.getProgress(sprintId);
+        if (progress.isEmpty() && !issueCache.isEmpty()) {
+            return fetchSprintIssuesUsingCache(sprintId, jql, cookieHeader, issueCache);
+        }
 
-        do {
-            String url = BASE_URL + "?jql=" + URLEncoder.encode(jql, StandardCharsets.UTF_8) +
-                        "&expand=changelog" +
-                        "&fields=*all" +
-                        "&maxResults=" + MAX_RESULTS;
+        try (SprintStagingFile staging = checkpointStore.openStaging(sprintId, progress)) {
+            PageCheckpoint checkpoint = token -> checkpointStore.recordPage(sprintId, staging, token);
+            PageSink sink = issues -> {
+                for (JsonNode issue : issues) {
+                    issueCache.put(issue);
+                }
+                staging.appendIssues(issues);
+                log.info("Fetched {} issues for sprint {}...", staging.getIssueCount(), sprintId);
+            };
 
-            if (nextPageToken != null) {
-                url += "&nextPageToken=" + URLEncoder.encode(nextPageToken, StandardCharsets.UTF_8);
+            if (progress.isEmpty()) {
+                searchPartitioned(jql, "*all", true, cookieHeader, sink, checkpoint);
+                return new StagedSprint(sprintId, staging.getPath(), staging.getIssueCount());
             }
 
-            JsonNode response = makeRequest(url, cookieHeader);
-            if (response == null) break;
+            log.info("Resuming sprint {} from checkpoint ({} issues already fetched)",
+                    sprintId, progress.get().issuesFetched());
+            // Tokens are bound to the query, which sequential fetches always order by key
+            String orderedJql = jql + " ORDER BY key ASC";
+            JsonNode resumedPage = null;
+            try {
+                resumedPage = searchPage(orderedJql, "*all", true, progress.get().nextPageToken(), MAX_RESULTS,
+                        cookieHeader);
+            } catch (JiraHttpException e) {
+                // Page tokens expire; fall back to fetching the sprint from the start
+                log.warn("Could not resume sprint {} from checkpoint ({}), restarting it", sprintId, e.getMessage());
+            }
+            if (resumedPage != null) {
+                PageSink completingSink = issues -> {
+                    changelogCompleter.completeTruncated(issues, cookieHeader);
+                    sink.accept(issues);
+                };
+                continueSequentially(orderedJql, "*all", true, resumedPage, cookieHeader, completingSink, checkpoint);
+                return new StagedSprint(sprintId, staging.getPath(), staging.getIssueCount());
+            }
+        }
 
-            isLast = response.path("isLast").asBoolean(true);
-            JsonNode issues = response.get("issues");
+        checkpointStore.clear(sprintId);
+        return fetchSprintIssues(sprintId, cookieHeader, issueCache);
+    }
 
-            if (issues != null && issues.isArray()) {
+    /**
+     * Fetch a sprint by listing only its issue keys and "updated" timestamps, staging cached
+     * payloads for unchanged issues and fetching the rest in full by key.
+     */
+    private StagedSprint fetchSprintIssuesUsingCache(String sprintId, String jql, String cookieHeader,
+                                                     IssueRunCache issueCache) throws Exception {
+        Map<String, String> listing = new ConcurrentHashMap<>();
+        searchPartitioned(jql, "updated", false, cookieHeader, issues -> {
+            for (JsonNode issue : issues) {
+                listing.put(issue.path("key").asText(), IssueRunCache.updatedOf(issue));
+            }
+        }, null);
+
+        try (SprintStagingFile staging = checkpointStore.openStaging(sprintId, Optional.empty())) {
+            ArrayNode cached = objectMapper.createArrayNode();
+            List<String> missingKeys = new ArrayList<>();
+            for (Map.Entry<String, String> entry : new TreeMap<>(listing).entrySet()) {
+                JsonNode issue = issueCache.get(entry.getKey(), entry.getValue());
+                if (issue == null) {
+                    missingKeys.add(entry.getKey());
+                    continue;
+                }
+                cached.add(issue);
+                if (cached.size() == MAX_RESULTS) {
+                    staging.appendIssues(cached);
+                    cached = objectMapper.createArrayNode();
+                }
+            }
+            if (!cached.isEmpty()) {
+                staging.appendIssues(cached);
+            }
+            log.info("Sprint {}: {} of {} issues served from the run cache, fetching {}",
+                    sprintId, listing.size() - missingKeys.size(), listing.size(), missingKeys.size());
+
+            PageSink sink = issues -> {
+                changelogCompleter.completeTruncated(issues, cookieHeader);
                 for (JsonNode issue : issues) {
-                    allIssues.add(issue);
+                    issueCache.put(issue);
                 }
+                staging.appendIssues(issues);
+            };
+            for (int i = 0; i < missingKeys.size(); i += KEY_BATCH_SIZE) {
+                List<String> batch = missingKeys.subList(i, Math.min(i + KEY_BATCH_SIZE, missingKeys.size()));
+                String batchJql = "key in (" + String.join(",", batch) + ") ORDER BY key ASC";
+                JsonNode page = searchPage(batchJql, "*all", true, null, MAX_RESULTS, cookieHeader);
+                continueSequentially(batchJql, "*all", true, page, cookieHeader, sink, null);
             }
+            return new StagedSprint(sprintId, staging.getPath(), staging.getIssueCount());
+        }
+    }
 
-            JsonNode nextToken = response.get("nextPageToken");
-            nextPageToken = (nextToken != null && !nextToken.isNull()) ? nextToken.asText() : null;
+    /**
+     * Run a search, splitting it into concurrently fetched key ranges when the first page
+     * reports more issues than a single partition should hold. Issues are deduplicated by key,
+     * have truncated changelogs completed, and are handed to the sink one page at a time, never concurrently.
+     *
+     * The first page doubles as the start of the first key range, which then only fetches the keys after it.
+     * A search split into key ranges records no checkpoints: each range has its own token chain, which a
+     * single next-page token cannot describe, so an interrupted partitioned fetch is not resumed but
+     * started over by the next run.
+     *
+     * @param checkpoint receives next-page tokens while paging sequentially; may be null
+     */
+    private void searchPartitioned(String jql, String fields, boolean expandChangelog, String cookieHeader,
+                                   PageSink sink, PageCheckpoint checkpoint) throws Exception {
+        Set<String> seenKeys = ConcurrentHashMap.newKeySet();
+        Object sinkLock = new Object();
+        PageSink dedupSink = issues -> {
+            ArrayNode fresh = objectMapper.createArrayNode();
+            for (JsonNode issue : issues) {
+                if (seenKeys.add(issue.path("key").asText())) {
+                    fresh.add(issue);
+                }
+            }
+            if (expandChangelog) {
+                // Outside the sink lock, so partitions complete their changelogs in parallel
+                changelogCompleter.completeTruncated(fresh, cookieHeader);
+            }
+            synchronized (sinkLock) {
+                sink.accept(fresh);
+            }
+        };
 
-            log.info("Fetched {} issues for sprint {}...", allIssues.size(), sprintId);
+        String orderedJql = jql + " ORDER BY key ASC";
+        JsonNode firstPage = searchPage(orderedJql, fields, expandChangelog, null, MAX_RESULTS, cookieHeader);
+        if (firstPage == null || firstPage.path("isLast").asBoolean(true) || !firstPage.hasNonNull("nextPageToken")) {
+            continueSequentially(orderedJql, fields, expandChangelog, firstPage, cookieHeader, dedupSink, checkpoint);
+            return;
+        }
 
-        } while (!isLast && nextPageToken != null);
+        int issueCount = reportedIssueCount(jql, firstPage, cookieHeader);
+        int partitionCount = KeyRangePartitioner.partitionCount(issueCount, MAX_PARTITIONS);
+        List<String> ranges = List.of(jql);
+        if (partitionCount > 1) {
+            String lowestKey = firstPage.path("issues").path(0).path("key").asText(null);
+            JsonNode lastPage = searchPage(jql + " ORDER BY key DESC", "summary", false, null, 1, cookieHeader);
+            String highestKey = lastPage == null ? null : lastPage.path("issues").path(0).path("key").asText(null);
+            ranges = KeyRangePartitioner.partition(jql, lowestKey, highestKey, partitionCount);
+        }
 
-        ObjectNode sprintData = objectMapper.createObjectNode();
-        sprintData.put("sprintId", sprintId);
-        sprintData.put("fetchedAt", LocalDateTime.now(ZoneId.systemDefault()).toString());
-        sprintData.put("totalIssues", allIssues.size());
-        sprintData.set("issues", allIssues);
+        if (ranges.size() < 2) {
+            continueSequentially(orderedJql, fields, expandChangelog, firstPage, cookieHeader, dedupSink, checkpoint);
+            return;
+        }
+
+        log.info("Splitting query into {} key ranges for {} issues: {}", ranges.size(), issueCount, jql);
+        JsonNode firstIssues = firstPage.path("issues");
+        dedupSink.accept(firstIssues);
+        String lastFetchedKey = firstIssues.path(firstIssues.size() - 1).path("key").asText(null);
+        ranges = new ArrayList<>(ranges);
+        ranges.set(0, KeyRangePartitioner.after(ranges.get(0), lastFetchedKey));
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(ranges.size(), MAX_CONCURRENT_PARTITIONS));
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (String range : ranges) {
+                futures.add(executor.submit(() -> {
+                    String rangeJql = range + " ORDER BY key ASC";
+                    JsonNode page = searchPage(rangeJql, fields, expandChangelog, null, MAX_RESULTS, cookieHeader);
+                    continueSequentially(rangeJql, fields, expandChangelog, page, cookieHeader, dedupSink, null);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            executor.shutdownNow();
+        }
 
-        return sprintData;
+        if (seenKeys.size() < issueCount) {
+            log.warn("Key-range fetch returned {} of {} reported issues for: {}", seenKeys.size(), issueCount, jql);
+        }
     }
 
     /**
-     * Make HTTP request to Jira API.
+     * Consume an already fetched page and follow its nextPageToken chain to the end.
      */
-    private JsonNode makeRequest(String url, String cookieHeader) throws Exception {
-        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Cookie", cookieHeader);
-        conn.setRequestProperty("Accept", "application/json");
-        conn.setConnectTimeout(30000);
-        conn.setReadTimeout(60000);
-
-        int status = conn.getResponseCode();
-        if (status >= 400) {
-            log.error("HTTP Error {} for URL: {}", status, url);
-            throw new RuntimeException("HTTP Error " + status);
-        }
+    private void continueSequentially(String jql, String fields, boolean expandChangelog, JsonNode page,
+                                      String cookieHeader, PageSink sink, PageCheckpoint checkpoint)
+            throws Exception {
+        while (page != null) {
+            boolean isLast = page.path("isLast").asBoolean(true);
+            JsonNode issues = page.get("issues");
+            if (issues != null && issues.isArray()) {
+                sink.accept(issues);
+            }
 
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
+            JsonNode nextToken = page.get("nextPageToken");
+            String nextPageToken = (nextToken != null && !nextToken.isNull()) ? nextToken.asText() : null;
+            if (isLast || nextPageToken == null) {
+                return;
+            }
+            if (checkpoint != null) {
+                checkpoint.record(nextPageToken);
             }
-            return objectMapper.readTree(response.toString());
+            page = searchPage(jql, fields, expandChangelog, nextPageToken, MAX_RESULTS, cookieHeader);
         }
     }
 
     /**
-     * Load master database from file.
+     * Fetch a single page of search results.
      */
-    private ObjectNode loadMasterDatabase() throws Exception {
-        File dbFile = new File(DATABASE_FILE);
-        if (!dbFile.exists()) {
-            log.info("Creating new master database...");
-            ObjectNode newDb = objectMapper.createObjectNode();
-            newDb.put("created", LocalDateTime.now(ZoneId.systemDefault()).toString());
-            newDb.set("sprints", objectMapper.createObjectNode());
-            newDb.put("totalSprints", 0);
-            return newDb;
+    private JsonNode searchPage(String jql, String fields, boolean expandChangelog, String nextPageToken,
+                                int maxResults, String cookieHeader) throws Exception {
+        String url = jiraProperties.url(SEARCH_PATH) + "?jql=" + URLEncoder.encode(jql, StandardCharsets.UTF_8) +
+                    (expandChangelog ? "&expand=changelog" : "") +
+                    "&fields=" + fields +
+                    "&maxResults=" + maxResults;
+
+        if (nextPageToken != null) {
+            url += "&nextPageToken=" + URLEncoder.encode(nextPageToken, StandardCharsets.UTF_8);
         }
-
-        log.info("Loading existing master database...");
-        return (ObjectNode) objectMapper.readTree(dbFile);
+        return jiraHttpClient.get(url, cookieHeader);
     }
 
     /**
-     * Save master database to file.
+     * Issue count for a query: the page's total when present, otherwise Jira's approximate count.
      */
-    private void saveMasterDatabase(ObjectNode masterDb) throws Exception {
-        File dbFile = new File(DATABASE_FILE);
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(dbFile, masterDb);
-        log.info("Master database saved to {}", DATABASE_FILE);
+    private int reportedIssueCount(String jql, JsonNode firstPage, String cookieHeader) {
+        if (firstPage.path("total").isNumber()) {
+            return firstPage.path("total").asInt();
+        }
+        try {
+            ObjectNode body = objectMapper.createObjectNode();
+            body.put("jql", jql);
+            JsonNode response = jiraHttpClient.post(jiraProperties.url(APPROXIMATE_COUNT_PATH), cookieHeader,
+                    objectMapper.writeValueAsString(body));
+            return response != null ? response.path("count").asInt(0) : 0;
+        } catch (Exception e) {
+            log.warn("Could not get approximate issue count, fetching sequentially: {}", e.getMessage());
+            return 0;
+        }
     }
 }
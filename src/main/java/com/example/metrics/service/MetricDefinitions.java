@@ -0,0 +1,14 @@
+package com.example.metrics.service;
+
+/**
+ * Version of the way sprint and fix-version metrics are computed.
+ * Bump it whenever a change to the analysis services changes their results: summaries frozen for
+ * closed sprints and cached results on disk that were computed under another version are then discarded.
+ */
+public final class MetricDefinitions {
+
+    public static final int VERSION = 1;
+
+    private MetricDefinitions() {
+    }
+}
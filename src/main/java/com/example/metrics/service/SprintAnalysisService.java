@@ -1,13 +1,19 @@
 package com.example.metrics.service;
 
+import com.example.metrics.config.CacheConfig;
+import com.example.metrics.config.DatasetKeyGenerator;
 import com.example.metrics.model.dto.IssueDetail;
 import com.example.metrics.model.dto.SprintInfo;
 import com.example.metrics.model.dto.SprintSummary;
 import com.example.metrics.model.jira.Issue;
 import com.example.metrics.service.datasource.JiraDataSourceManager;
+import com.example.metrics.service.storage.ClosedSprintSummaryStore;
+import com.example.metrics.service.storage.ClosedSprintSummaryStore.FrozenSummary;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -16,11 +22,11 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -30,52 +36,109 @@ public class SprintAnalysisService {
     
     private final JiraDataSourceManager dataSourceManager;
     private final ObjectMapper objectMapper;
+    private final ClosedSprintSummaryStore closedSprintSummaries;
     private static final String SPRINT_FIELD = "customfield_10020";
+    private static final String CLOSED_STATE = "closed";
+
+    /**
+     * Summary of the sprint an issue was last in, and whether that sprint is closed.
+     */
+    private record LatestSprint(SprintSummary summary, boolean closed) {
+    }
+
+    // Issues count towards their most recent sprint only, to avoid double-counting issues that moved
+    private final GroupedResults<LatestSprint> latestSprints =
+        new GroupedResults<>("latest sprints", this::latestSprintName, this::calculateLatestSprint);
+    private final GroupedResults<SprintSummary> allSprints =
+        new GroupedResults<>("sprints", this::sprintNames, this::calculateSprintSummary);
     
+    /**
+     * Summaries of all sprints. Closed sprints are computed once and then served from the
+     * {@link ClosedSprintSummaryStore} without summarizing their issues again, as long as the database still holds
+     * the same fetch of them. Other sprints keep their summaries across generations until a change
+     * to the issues moves into or out of them.
+     */
+    @Cacheable(cacheNames = CacheConfig.SPRINT_SUMMARIES, keyGenerator = DatasetKeyGenerator.NAME, sync = true)
     public List<SprintSummary> getAllSprintSummaries() throws IOException {
-        List<Issue> allIssues = dataSourceManager.fetchIssues(null);
-        
-        // Group issues by sprint
-        Map<String, List<Issue>> issuesBySprint = groupIssuesBySprint(allIssues);
+        Map<String, String> fetchTimes = dataSourceManager.sprintFetchTimes();
+        List<SprintSummary> summaries = new ArrayList<>();
+        Set<String> frozenSprintIds = new HashSet<>();
+        Set<String> frozenSprintNames = new HashSet<>();
+        for (FrozenSummary frozen : closedSprintSummaries.getSummaries().values()) {
+            String sprintId = frozen.summary().sprintId();
+            if (frozen.fetchedAt().equals(fetchTimes.get(sprintId))) {
+                summaries.add(frozen.summary());
+                frozenSprintIds.add(sprintId);
+                frozenSprintNames.add(frozen.summary().sprintName());
+            }
+        }
+
+        // A frozen sprint's issues are left out, unless some were carried over to a sprint that is still computed:
+        // freezing must not change any other sprint's summary
+        Map<String, List<Issue>> partitions = new LinkedHashMap<>(dataSourceManager.fetchIssuePartitions());
+        partitions.entrySet().removeIf(partition -> frozenSprintIds.contains(partition.getKey())
+            && frozenSprintNames.containsAll(latestSprints.groupsIn(partition.getValue())));
+
+        // Summarize each sprint, freezing the closed ones
+        List<FrozenSummary> closed = new ArrayList<>();
+        for (LatestSprint sprint : latestSprints.all(partitions, frozenSprintNames).values()) {
+            SprintSummary summary = sprint.summary();
+            summaries.add(summary);
+            String fetchedAt = fetchTimes.get(summary.sprintId());
+            if (fetchedAt != null && sprint.closed()) {
+                closed.add(new FrozenSummary(fetchedAt, summary));
+            }
+        }
+        closedSprintSummaries.freeze(closed);
         
-        // Calculate summary for each sprint
         // Sort by end date descending (most recent first), then by sprint name descending as fallback
-        return issuesBySprint.entrySet().stream()
-            .map(entry -> calculateSprintSummary(entry.getKey(), entry.getValue()))
-            .filter(Objects::nonNull)
+        return summaries.stream()
             .sorted(Comparator
                 .comparing(SprintSummary::endDate, Comparator.nullsLast(Comparator.reverseOrder()))
                 .thenComparing(SprintSummary::sprintName, Comparator.reverseOrder()))
-            .collect(Collectors.toList());
+            .toList();
     }
     
-    public SprintSummary getSprintSummary(String sprintName) throws IOException {
-        List<Issue> allIssues = dataSourceManager.fetchIssues(null);
-        List<Issue> sprintIssues = allIssues.stream()
-            .filter(issue -> belongsToSprint(issue, sprintName))
-            .collect(Collectors.toList());
+    /**
+     * Drop the frozen closed sprint summaries, and the cached summaries built from them,
+     * so that every sprint is computed again from its issues.
+     *
+     * @return the number of frozen summaries dropped
+     */
+    @CacheEvict(cacheNames = CacheConfig.SPRINT_SUMMARIES, allEntries = true)
+    public int recomputeClosedSprints() throws IOException {
+        return closedSprintSummaries.clear();
+    }
 
-        return calculateSprintSummary(sprintName, sprintIssues);
+    @Cacheable(cacheNames = CacheConfig.SPRINT_SUMMARIES, keyGenerator = DatasetKeyGenerator.NAME, sync = true)
+    public SprintSummary getSprintSummary(String sprintName) throws IOException {
+        return allSprints.get(dataSourceManager.fetchIssuePartitions(), sprintName);
     }
 
     /**
      * Get all issues for a sprint with details for UI display.
      * Deduplicates by issue key to avoid showing the same issue multiple times.
      */
+    @Cacheable(cacheNames = CacheConfig.SPRINT_ISSUES, keyGenerator = DatasetKeyGenerator.NAME, sync = true)
     public List<IssueDetail> getSprintIssues(String sprintName) throws IOException {
-        List<Issue> allIssues = dataSourceManager.fetchIssues(null);
+        List<Issue> sprintIssues = getIssuesInSprint(sprintName);
 
         // Use LinkedHashMap to preserve order while deduplicating by key
         Map<String, Issue> uniqueIssues = new LinkedHashMap<>();
-        allIssues.stream()
-            .filter(issue -> belongsToSprint(issue, sprintName))
-            .forEach(issue -> uniqueIssues.putIfAbsent(issue.getKey(), issue));
+        sprintIssues.forEach(issue -> uniqueIssues.putIfAbsent(issue.getKey(), issue));
 
         return uniqueIssues.values().stream()
             .map(this::toIssueDetail)
             .sorted(Comparator.comparing(IssueDetail::issueType)
                 .thenComparing(IssueDetail::key))
-            .collect(Collectors.toList());
+            .toList();
+    }
+
+    /**
+     * Issues in a sprint (at any point, not only their most recent one), as held by the dataset.
+     */
+    public List<Issue> getIssuesInSprint(String sprintName) throws IOException {
+        return allSprints.members(dataSourceManager.fetchIssuePartitions(), sprintName);
     }
 
     /**
@@ -98,21 +161,29 @@ public class SprintAnalysisService {
         return new IssueDetail(key, summary, issueType, status, priority, assignee, devDelivered, qaDelivered);
     }
 
-    private Map<String, List<Issue>> groupIssuesBySprint(List<Issue> issues) {
-        Map<String, List<Issue>> grouped = new HashMap<>();
+    /**
+     * Only the MOST RECENT sprint of an issue (last in the list).
+     */
+    private List<String> latestSprintName(Issue issue) {
+        List<SprintInfo> sprints = extractSprints(issue);
+        return sprints.isEmpty() ? List.of() : List.of(sprints.get(sprints.size() - 1).getName());
+    }
 
-        for (Issue issue : issues) {
-            List<SprintInfo> sprints = extractSprints(issue);
+    private List<String> sprintNames(Issue issue) {
+        return extractSprints(issue).stream()
+            .map(SprintInfo::getName)
+            .toList();
+    }
 
-            // Only assign issue to its MOST RECENT sprint (last in the list)
-            // This prevents double-counting issues that moved between sprints
-            if (!sprints.isEmpty()) {
-                SprintInfo mostRecentSprint = sprints.get(sprints.size() - 1);
-                grouped.computeIfAbsent(mostRecentSprint.getName(), k -> new ArrayList<>()).add(issue);
-            }
-        }
+    private LatestSprint calculateLatestSprint(String sprintName, List<Issue> issues) {
+        SprintSummary summary = calculateSprintSummary(sprintName, issues);
+        return summary != null ? new LatestSprint(summary, isClosed(sprintName, issues)) : null;
+    }
 
-        return grouped;
+    private boolean isClosed(String sprintName, List<Issue> issues) {
+        return !issues.isEmpty() && extractSprints(issues.get(0)).stream()
+            .anyMatch(sprint -> sprintName.equals(sprint.getName())
+                && CLOSED_STATE.equalsIgnoreCase(sprint.getState()));
     }
     
     private SprintSummary calculateSprintSummary(String sprintName, List<Issue> issues) {
@@ -246,11 +317,6 @@ public class SprintAnalysisService {
         );
     }
     
-    private boolean belongsToSprint(Issue issue, String sprintName) {
-        return extractSprints(issue).stream()
-            .anyMatch(sprint -> sprintName.equals(sprint.getName()));
-    }
-    
     private List<SprintInfo> extractSprints(Issue issue) {
         if (issue.getFields() == null) {
             return Collections.emptyList();
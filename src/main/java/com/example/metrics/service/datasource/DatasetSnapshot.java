@@ -0,0 +1,129 @@
+package com.example.metrics.service.datasource;
+
+import com.example.metrics.model.jira.Issue;
+import com.example.metrics.service.storage.DatabaseManifest;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of the sprint master database at one generation.
+ * A new generation shares the issue lists of every sprint that did not change, so publishing
+ * it only costs parsing the sprints that were written.
+ */
+public final class DatasetSnapshot {
+
+    private final DatabaseManifest manifest;
+    private final Map<String, SprintData> sprints;
+    private final List<Issue> allIssues;
+    private final Map<String, List<Issue>> issuesBySprint;
+
+    /**
+     * Issues of one sprint, with the manifest entry they were read for.
+     */
+    record SprintData(DatabaseManifest.SprintEntry entry, List<Issue> issues) {
+
+        /**
+         * Whether these issues can be reused for the given manifest entry.
+         */
+        boolean isCurrent(DatabaseManifest.SprintEntry current) {
+            return entry.fetchedAt() != null && entry.equals(current);
+        }
+    }
+
+    DatasetSnapshot(DatabaseManifest manifest, Map<String, SprintData> sprints) {
+        this.manifest = manifest;
+        this.sprints = Collections.unmodifiableMap(new LinkedHashMap<>(sprints));
+        this.allIssues = sprints.values().stream()
+                .flatMap(sprint -> sprint.issues().stream())
+                .distinct()
+                .toList();
+        Map<String, List<Issue>> bySprint = new LinkedHashMap<>();
+        sprints.forEach((sprintId, sprint) -> bySprint.put(sprintId, sprint.issues()));
+        this.issuesBySprint = Collections.unmodifiableMap(bySprint);
+    }
+
+    public long getGeneration() {
+        return manifest.generation();
+    }
+
+    /**
+     * When this generation was written, or null for a database never written by this server or its tools.
+     */
+    public String getLastUpdated() {
+        return manifest.lastUpdated();
+    }
+
+    /**
+     * All issues across sprints, without duplicates.
+     */
+    public List<Issue> getAllIssues() {
+        return allIssues;
+    }
+
+    /**
+     * Issues of each sprint, by sprint id. A sprint that did not change between two generations
+     * has the very same list in both.
+     */
+    public Map<String, List<Issue>> getIssuesBySprint() {
+        return issuesBySprint;
+    }
+
+    /**
+     * @return the sprint's issues, or null if the sprint is not in this generation
+     */
+    public List<Issue> getSprintIssues(String sprintId) {
+        SprintData sprint = sprints.get(sprintId);
+        return sprint != null ? sprint.issues() : null;
+    }
+
+    public Set<String> getSprintIds() {
+        return sprints.keySet();
+    }
+
+    /**
+     * When each sprint's issues were fetched, by sprint id, for sprints whose fetch time is known.
+     */
+    public Map<String, String> getSprintFetchTimes() {
+        Map<String, String> fetchTimes = new LinkedHashMap<>();
+        sprints.forEach((sprintId, sprint) -> {
+            if (sprint.entry().fetchedAt() != null) {
+                fetchTimes.put(sprintId, sprint.entry().fetchedAt());
+            }
+        });
+        return fetchTimes;
+    }
+
+    /**
+     * Sprints whose issues may differ between this snapshot and another one: sprints that are only in
+     * one of them, or that were written between the two generations.
+     */
+    public Set<String> changedSprints(DatasetSnapshot other) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (Map.Entry<String, SprintData> sprint : sprints.entrySet()) {
+            SprintData otherSprint = other.sprints.get(sprint.getKey());
+            if (otherSprint == null
+                    || (otherSprint != sprint.getValue() && !sprint.getValue().isCurrent(otherSprint.entry()))) {
+                changed.add(sprint.getKey());
+            }
+        }
+        for (String sprintId : other.sprints.keySet()) {
+            if (!sprints.containsKey(sprintId)) {
+                changed.add(sprintId);
+            }
+        }
+        return changed;
+    }
+
+    SprintData getSprint(String sprintId) {
+        return sprints.get(sprintId);
+    }
+
+    DatabaseManifest getManifest() {
+        return manifest;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.metrics.service.datasource;
+
+import java.io.IOException;
+
+/**
+ * Prepares results derived from the sprint database for a new generation before it is published,
+ * so that requests switch over only once those results are ready.
+ */
+public interface DatasetWarmer {
+
+    /**
+     * Called on the publishing thread, pinned to {@code next}, so reads made here see the new generation.
+     *
+     * @param previous the snapshot being served until {@code next} is published
+     */
+    void warm(DatasetSnapshot previous, DatasetSnapshot next) throws IOException;
+}
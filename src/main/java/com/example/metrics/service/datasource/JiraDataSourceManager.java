@@ -6,6 +6,8 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manager that automatically selects the best available Jira data source.
@@ -18,8 +20,12 @@ import java.util.List;
 @Service
 public class JiraDataSourceManager {
 
+    private static final String DATABASE_VERSION_PREFIX = "db:";
+    private static final String ALL_ISSUES_PARTITION = "all";
+
     private final SprintDatabaseDataSource sprintDatabaseSource;
     private final FileBasedJiraDataSource fileBasedSource;
+    private final AtomicLong fileExportGeneration = new AtomicLong(1);
 
     public JiraDataSourceManager(
             SprintDatabaseDataSource sprintDatabaseSource,
@@ -47,10 +53,60 @@ public class JiraDataSourceManager {
         return getActiveSource().fetchIssues(jql);
     }
 
+    /**
+     * All issues, in partitions that keep their identity while their issues do not change: the sprints
+     * of the sprint master database, by sprint id, or a single partition for other sources.
+     */
+    public Map<String, List<Issue>> fetchIssuePartitions() throws IOException {
+        JiraDataSource source = getActiveSource();
+        if (source == sprintDatabaseSource) {
+            return sprintDatabaseSource.snapshot().getIssuesBySprint();
+        }
+        return Map.of(ALL_ISSUES_PARTITION, source.fetchIssues(null));
+    }
+
+    /**
+     * When the sprint master database fetched each sprint's issues, by sprint id;
+     * empty if the database is not available.
+     */
+    public Map<String, String> sprintFetchTimes() throws IOException {
+        if (!sprintDatabaseSource.isAvailable()) {
+            return Map.of();
+        }
+        return sprintDatabaseSource.snapshot().getSprintFetchTimes();
+    }
+
     public List<Issue> fetchIssuesForSprint(String sprintId) throws IOException {
         return getActiveSource().fetchIssuesForSprint(sprintId);
     }
 
+    /**
+     * Version of the data the active source serves: the pinned or latest sprint database generation,
+     * or, for file-based exports, a counter bumped by {@link #clearCache()}.
+     * Anything computed from the issues can be cached under it and never goes stale.
+     */
+    public String datasetVersion() throws IOException {
+        if (sprintDatabaseSource.isAvailable()) {
+            return databaseVersion(sprintDatabaseSource.snapshot().getGeneration());
+        }
+        return "files:" + fileExportGeneration.get();
+    }
+
+    /**
+     * Dataset version of a sprint database generation.
+     */
+    public static String databaseVersion(long generation) {
+        return DATABASE_VERSION_PREFIX + generation;
+    }
+
+    /**
+     * Whether a dataset version is a sprint database generation, which unlike the file-based
+     * counter keeps its meaning across restarts.
+     */
+    public static boolean isDatabaseVersion(String version) {
+        return version.startsWith(DATABASE_VERSION_PREFIX);
+    }
+
     private void logAvailableSources() {
         log.info("Data sources available - Sprint Database: {}, File-based: {}",
             sprintDatabaseSource.isAvailable(),
@@ -60,6 +116,7 @@ public class JiraDataSourceManager {
     public void clearCache() {
         sprintDatabaseSource.clearCache();
         fileBasedSource.clearCache();
+        fileExportGeneration.incrementAndGet();
     }
 }
 
@@ -1,66 +1,114 @@
 package com.example.metrics.service.datasource;
 
+import com.example.metrics.config.DatasetHistoryProperties;
 import com.example.metrics.model.jira.Issue;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.metrics.service.datasource.DatasetSnapshot.SprintData;
+import com.example.metrics.service.storage.DatabaseManifest;
+import com.example.metrics.service.storage.GenerationHistory;
+import com.example.metrics.service.storage.IssueContentHash;
+import com.example.metrics.service.storage.SprintDatabaseStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Sprint master database data source that reads from jira-sprint-database.json.
  * This is the preferred data source as it contains complete sprint data with full changelog.
+ * <p>
+ * Data is served from immutable {@link DatasetSnapshot}s. Readers never lock: they get the latest
+ * published snapshot, and while a newer generation is being published they keep getting the
+ * previous one. Requests that pin a snapshot see a single generation across all their reads.
+ * <p>
+ * A newer generation found by a read, or a reload asked for by {@link #clearCache()}, is built in the
+ * background while the previous snapshot keeps being served. {@link DatasetWarmer}s then prepare their
+ * results for it, and only after that is it published.
+ * <p>
+ * Past generations still covered by the {@link GenerationHistory} can be pinned too; they are
+ * rebuilt on first use by applying the retained deltas to a newer snapshot, and cached.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class SprintDatabaseDataSource implements JiraDataSource {
-    
-    private static final String DATABASE_FILE = "tools/jira-sprint-database.json";
-    
+
+    private static final String DATABASE_FILE = SprintDatabaseStore.DATABASE_FILE;
+
     private final ObjectMapper objectMapper;
-    private Map<String, List<Issue>> sprintCache;
-    private boolean loaded = false;
-    
+    private final SprintDatabaseStore databaseStore;
+    private final GenerationHistory history;
+    private final ObjectProvider<DatasetWarmer> warmers;
+    private final Cache<Long, DatasetSnapshot> pastSnapshots;
+    private final AtomicReference<DatasetSnapshot> current = new AtomicReference<>();
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final ThreadLocal<Pin> pins = new ThreadLocal<>();
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "dataset-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean publishScheduled = new AtomicBoolean();
+    private volatile boolean fullReloadRequested;
+    private volatile Instant staleSince;
+
+    public SprintDatabaseDataSource(ObjectMapper objectMapper, SprintDatabaseStore databaseStore,
+                                    GenerationHistory history, DatasetHistoryProperties historyProperties,
+                                    ObjectProvider<DatasetWarmer> warmers) {
+        this.objectMapper = objectMapper;
+        this.databaseStore = databaseStore;
+        this.history = history;
+        this.warmers = warmers;
+        this.pastSnapshots = Caffeine.newBuilder()
+                .maximumSize(historyProperties.cachedGenerations())
+                .build();
+    }
+
     @Override
     public List<Issue> fetchIssues(String jql) throws IOException {
-        loadDatabaseIfNeeded();
-        
         // Return all issues from all sprints
-        return sprintCache.values().stream()
-                .flatMap(List::stream)
-                .distinct()
-                .collect(Collectors.toList());
+        return snapshot().getAllIssues();
     }
-    
+
     @Override
     public List<Issue> fetchIssuesForSprint(String sprintId) throws IOException {
-        loadDatabaseIfNeeded();
-        
-        List<Issue> issues = sprintCache.get(sprintId);
+        DatasetSnapshot snapshot = snapshot();
+
+        List<Issue> issues = snapshot.getSprintIssues(sprintId);
         if (issues == null) {
-            log.warn("Sprint {} not found in database. Available sprints: {}", 
-                    sprintId, sprintCache.keySet());
+            log.warn("Sprint {} not found in database. Available sprints: {}",
+                    sprintId, snapshot.getSprintIds());
             return new ArrayList<>();
         }
-        
+
         log.info("Loaded {} issues for sprint {} from master database", issues.size(), sprintId);
         return issues;
     }
-    
+
     @Override
     public String getSourceName() {
         return "Sprint Master Database";
     }
-    
+
     @Override
     public boolean isAvailable() {
         File dbFile = new File(DATABASE_FILE);
@@ -72,89 +120,425 @@ public class SprintDatabaseDataSource implements JiraDataSource {
         }
         return exists;
     }
-    
+
+    /**
+     * Snapshot to read from: the one pinned by the current request if any, otherwise the latest.
+     */
+    public DatasetSnapshot snapshot() throws IOException {
+        Pin pin = pins.get();
+        if (pin != null && pin.root.snapshot != null) {
+            return pin.root.snapshot;
+        }
+        DatasetSnapshot snapshot = latest();
+        if (pin != null) {
+            pin.root.snapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * How long the latest snapshot has been known to be behind the database while its successor is built,
+     * or null if it is up to date.
+     */
+    public Duration staleness() {
+        Instant since = staleSince;
+        return since != null ? Duration.between(since, Instant.now()) : null;
+    }
+
+    /**
+     * Pin the current thread to one snapshot until the returned pin is closed.
+     * The snapshot is chosen lazily by the first read, so pinning is free for requests that read nothing.
+     * Nested pins share the outermost pin's snapshot.
+     */
+    public Pin pin() {
+        Pin pin = new Pin(pins.get());
+        pins.set(pin);
+        return pin;
+    }
+
+    /**
+     * Pin the current thread to a past generation until the returned pin is closed.
+     *
+     * @throws IllegalArgumentException if the generation does not exist or is no longer retained
+     */
+    public Pin pin(long generation) throws IOException {
+        DatasetSnapshot snapshot = snapshot(generation);
+        Pin pin = pin();
+        pin.root.snapshot = snapshot;
+        return pin;
+    }
+
+    /**
+     * Snapshot of the given generation. Past generations are rebuilt from the retained history:
+     * only the sprints a later write replaced are parsed, every other sprint shares its issues
+     * with the newer snapshot.
+     *
+     * @throws IllegalArgumentException if the generation does not exist or is no longer retained
+     */
+    public DatasetSnapshot snapshot(long generation) throws IOException {
+        DatasetSnapshot head = latest();
+        if (generation == head.getGeneration()) {
+            return head;
+        }
+        if (generation > head.getGeneration()) {
+            throw new IllegalArgumentException("Generation " + generation
+                    + " does not exist; the current generation is " + head.getGeneration());
+        }
+
+        // Walk back from the head, checking that each delta restores exactly its successor.
+        // A write by the standalone tools keeps no delta and breaks the chain there.
+        List<GenerationHistory.Delta> deltas = new ArrayList<>();
+        DatasetSnapshot base = head;
+        String successorWrittenAt = head.getLastUpdated();
+        for (long g = head.getGeneration() - 1; g >= generation; g--) {
+            GenerationHistory.Delta delta = history.delta(g).orElse(null);
+            if (delta == null || delta.supersededAt() == null || !delta.supersededAt().equals(successorWrittenAt)) {
+                throw new IllegalArgumentException("Generation " + generation
+                        + " is no longer retained; the current generation is " + head.getGeneration());
+            }
+            DatasetSnapshot cached = pastSnapshots.getIfPresent(g);
+            if (cached != null && cached.getManifest().equals(delta.manifest())) {
+                base = cached;
+                deltas.clear();
+            } else {
+                deltas.add(0, delta);
+            }
+            successorWrittenAt = delta.lastUpdated();
+        }
+        if (deltas.isEmpty()) {
+            return base;
+        }
+
+        DatasetSnapshot snapshot = rebuild(deltas, base);
+        pastSnapshots.put(generation, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Generation that was current at the given time.
+     *
+     * @throws IllegalArgumentException if that generation is no longer retained
+     */
+    public long generationAt(LocalDateTime asOf) throws IOException {
+        DatasetSnapshot head = latest();
+        if (head.getLastUpdated() == null || !asOf.isBefore(LocalDateTime.parse(head.getLastUpdated()))) {
+            return head.getGeneration();
+        }
+        for (GenerationHistory.Delta delta : history.list()) {
+            if (delta.generation() < head.getGeneration()
+                    && (delta.lastUpdated() == null || !asOf.isBefore(LocalDateTime.parse(delta.lastUpdated())))) {
+                return delta.generation();
+            }
+        }
+        throw new IllegalArgumentException("No retained generation is as old as " + asOf);
+    }
+
+    /**
+     * Publish a snapshot of the database as it is now. Called by writers after they change the database,
+     * so that readers switch to the new generation without paying for the parse.
+     * A failure is logged and leaves the previous snapshot in place; the next read retries.
+     */
+    public void refresh() {
+        publishLock.lock();
+        try {
+            publishLatest();
+        } catch (IOException e) {
+            log.warn("Failed to publish sprint database snapshot: {}", e.getMessage());
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
     /**
-     * Load the master database if not already loaded.
+     * Latest published snapshot. If the database changed, the newer generation is published in the background
+     * and the previous snapshot is returned rather than waiting; only the very first read loads inline.
+     * If the database cannot be read (e.g. a torn file) the previous snapshot keeps being served.
      */
-    private void loadDatabaseIfNeeded() throws IOException {
-        if (loaded) {
+    private DatasetSnapshot latest() throws IOException {
+        DatasetSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            publishLock.lock();
+            try {
+                return publishLatest();
+            } finally {
+                publishLock.unlock();
+            }
+        }
+        try {
+            if (!fullReloadRequested && snapshot.getGeneration() == databaseStore.getManifest().generation()) {
+                return snapshot;
+            }
+            publishInBackground();
+            return snapshot;
+        } catch (IOException e) {
+            log.warn("Serving sprint database generation {}: {}", snapshot.getGeneration(), e.getMessage());
+            return snapshot;
+        }
+    }
+
+    /**
+     * Publish the latest generation on the publisher thread, unless that is already scheduled.
+     */
+    private void publishInBackground() {
+        if (staleSince == null) {
+            staleSince = Instant.now();
+        }
+        if (!publishScheduled.compareAndSet(false, true)) {
             return;
         }
-        
+        publisher.execute(() -> {
+            publishLock.lock();
+            try {
+                // Changes arriving from here on need another run
+                publishScheduled.set(false);
+                publishLatest();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to publish sprint database snapshot: {}", e.getMessage());
+            } finally {
+                publishLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Build and publish a snapshot of the current generation, reusing the issues of unchanged
+     * sprints from the previous snapshot, once the warmers are done with it. Must hold publishLock.
+     */
+    private DatasetSnapshot publishLatest() throws IOException {
+        DatasetSnapshot previous = current.get();
+        boolean fullReload = fullReloadRequested;
+        fullReloadRequested = false;
+        if (previous != null && !fullReload && previous.getGeneration() == databaseStore.getManifest().generation()) {
+            staleSince = null;
+            return previous;
+        }
+        DatasetSnapshot base = fullReload ? null : previous;
+
         log.info("Loading sprint master database from: {}", DATABASE_FILE);
-        
-        File dbFile = new File(DATABASE_FILE);
-        if (!dbFile.exists()) {
+        Set<String> changed = new HashSet<>();
+        Map<String, List<Issue>> parsed = new HashMap<>();
+        int[] reused = new int[1];
+        DatabaseManifest manifest = databaseStore.readSprints(
+                latestManifest -> {
+                    changed.addAll(changedSprints(latestManifest, base));
+                    return changed;
+                },
+                issueCollector(parsed, base, reused));
+        if (manifest.fileSize() < 0) {
             throw new IOException("Sprint master database not found: " + DATABASE_FILE);
         }
-        
-        JsonNode root = objectMapper.readTree(dbFile);
-        
-        // Extract metadata
-        String created = root.path("created").asText();
-        String lastUpdated = root.path("lastUpdated").asText();
-        int totalSprints = root.path("totalSprints").asInt();
-        
-        log.info("Database metadata - Created: {}, Last Updated: {}, Total Sprints: {}", 
-                created, lastUpdated, totalSprints);
-        
-        // Load all sprints
-        sprintCache = new HashMap<>();
-        JsonNode sprintsNode = root.path("sprints");
-        
-        if (sprintsNode.isObject()) {
-            sprintsNode.fields().forEachRemaining(entry -> {
-                String sprintId = entry.getKey();
-                JsonNode sprintData = entry.getValue();
-                
-                try {
-                    List<Issue> issues = parseSprintIssues(sprintData);
-                    sprintCache.put(sprintId, issues);
-                    log.debug("Loaded {} issues for sprint {}", issues.size(), sprintId);
-                } catch (Exception e) {
-                    log.error("Failed to parse sprint {}: {}", sprintId, e.getMessage(), e);
+
+        Map<String, SprintData> sprints = new LinkedHashMap<>();
+        for (DatabaseManifest.SprintEntry entry : manifest.sprints()) {
+            String sprintId = entry.sprintId();
+            if (changed.contains(sprintId)) {
+                List<Issue> issues = parsed.getOrDefault(sprintId, List.of());
+                sprints.put(sprintId, new SprintData(entry, List.copyOf(issues)));
+                log.debug("Loaded {} issues for sprint {}", issues.size(), sprintId);
+            } else {
+                sprints.put(sprintId, base.getSprint(sprintId));
+            }
+        }
+
+        DatasetSnapshot snapshot = new DatasetSnapshot(manifest, sprints);
+        if (previous != null && previous.getGeneration() != snapshot.getGeneration()) {
+            warm(previous, snapshot);
+        }
+        current.set(snapshot);
+        staleSince = null;
+        log.info("Published sprint database generation {}: {} sprints ({} loaded, {} reused) with {} total issues"
+                        + " ({} unchanged issues reused)", snapshot.getGeneration(), sprints.size(), changed.size(),
+                sprints.size() - changed.size(), snapshot.getAllIssues().size(), reused[0]);
+        return snapshot;
+    }
+
+    /**
+     * Rebuild the generation restored by the first of the given deltas.
+     * A sprint is read from the first delta whose write replaced it, or shared with the base
+     * snapshot if none of them did.
+     *
+     * @param deltas consecutive deltas, oldest first, the last one restoring the generation before the base
+     */
+    private DatasetSnapshot rebuild(List<GenerationHistory.Delta> deltas, DatasetSnapshot base) throws IOException {
+        DatabaseManifest target = deltas.get(0).manifest();
+        List<Map<String, DatabaseManifest.SprintEntry>> successors = new ArrayList<>();
+        for (int i = 1; i < deltas.size(); i++) {
+            successors.add(entriesById(deltas.get(i).manifest()));
+        }
+        successors.add(entriesById(base.getManifest()));
+
+        Map<Long, Set<String>> fromDeltas = new LinkedHashMap<>();
+        Set<String> replaced = new HashSet<>();
+        for (DatabaseManifest.SprintEntry entry : target.sprints()) {
+            for (int i = 0; i < deltas.size(); i++) {
+                if (!entry.equals(successors.get(i).get(entry.sprintId()))) {
+                    fromDeltas.computeIfAbsent(deltas.get(i).generation(), g -> new HashSet<>()).add(entry.sprintId());
+                    replaced.add(entry.sprintId());
+                    break;
                 }
-            });
+            }
         }
-        
-        int totalIssues = sprintCache.values().stream()
-                .mapToInt(List::size)
-                .sum();
-        
-        log.info("Successfully loaded {} sprints with {} total issues from master database", 
-                sprintCache.size(), totalIssues);
-        
-        loaded = true;
-    }
-    
-    /**
-     * Parse issues from a sprint data node.
-     */
-    private List<Issue> parseSprintIssues(JsonNode sprintData) {
-        List<Issue> issues = new ArrayList<>();
-        JsonNode issuesNode = sprintData.path("issues");
-        
-        if (issuesNode.isArray()) {
-            for (JsonNode issueNode : issuesNode) {
-                try {
-                    Issue issue = objectMapper.treeToValue(issueNode, Issue.class);
-                    issues.add(issue);
-                } catch (Exception e) {
-                    log.warn("Failed to parse issue: {}", issueNode.path("key").asText(), e);
+
+        Map<String, List<Issue>> parsed = new HashMap<>();
+        for (Map.Entry<Long, Set<String>> delta : fromDeltas.entrySet()) {
+            history.readSprints(delta.getKey(), delta.getValue(), issueCollector(parsed, base, new int[1]));
+        }
+
+        Map<String, SprintData> sprints = new LinkedHashMap<>();
+        for (DatabaseManifest.SprintEntry entry : target.sprints()) {
+            String sprintId = entry.sprintId();
+            SprintData shared = base.getSprint(sprintId);
+            if (replaced.contains(sprintId)) {
+                sprints.put(sprintId, new SprintData(entry, List.copyOf(parsed.getOrDefault(sprintId, List.of()))));
+            } else if (shared != null) {
+                sprints.put(sprintId, shared);
+            } else {
+                throw new IOException("Sprint " + sprintId + " of generation " + target.generation()
+                        + " is missing from the retained history");
+            }
+        }
+
+        DatasetSnapshot snapshot = new DatasetSnapshot(target, sprints);
+        log.info("Rebuilt sprint database generation {} from {} delta(s): {} sprints ({} loaded, {} shared)",
+                snapshot.getGeneration(), deltas.size(), sprints.size(), replaced.size(),
+                sprints.size() - replaced.size());
+        return snapshot;
+    }
+
+    private static Map<String, DatabaseManifest.SprintEntry> entriesById(DatabaseManifest manifest) {
+        Map<String, DatabaseManifest.SprintEntry> entries = new HashMap<>();
+        for (DatabaseManifest.SprintEntry entry : manifest.sprints()) {
+            entries.put(entry.sprintId(), entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Visitor that parses issues into per-sprint lists, skipping (and logging) issues that do not parse.
+     * An issue whose stored content hash matches its copy in the same sprint of the base snapshot is not
+     * parsed again; the base snapshot's issue is shared instead.
+     *
+     * @param base   snapshot to share unchanged issues with, or null
+     * @param reused incremented for every shared issue
+     */
+    private SprintDatabaseStore.IssueVisitor issueCollector(Map<String, List<Issue>> parsed, DatasetSnapshot base,
+                                                            int[] reused) {
+        Map<String, Map<String, Issue>> baseIssues = new HashMap<>();
+        return (sprintId, issueNode) -> {
+            List<Issue> sprintIssues = parsed.computeIfAbsent(sprintId, k -> new ArrayList<>());
+            String contentHash = issueNode.path(IssueContentHash.FIELD).textValue();
+            if (contentHash != null && base != null) {
+                Issue previous = baseIssues.computeIfAbsent(sprintId, id -> issuesByKey(base.getSprintIssues(id)))
+                        .get(issueNode.path("key").asText());
+                if (previous != null && contentHash.equals(previous.getContentHash())) {
+                    sprintIssues.add(previous);
+                    reused[0]++;
+                    return;
                 }
             }
+            try {
+                sprintIssues.add(objectMapper.treeToValue(issueNode, Issue.class));
+            } catch (Exception e) {
+                log.warn("Failed to parse issue: {}", issueNode.path("key").asText(), e);
+            }
+        };
+    }
+
+    private static Map<String, Issue> issuesByKey(List<Issue> issues) {
+        Map<String, Issue> byKey = new HashMap<>();
+        if (issues != null) {
+            for (Issue issue : issues) {
+                byKey.put(issue.getKey(), issue);
+            }
         }
-        
-        return issues;
+        return byKey;
+    }
+
+    /**
+     * Sprints whose issues cannot be taken from the base snapshot.
+     */
+    private static Set<String> changedSprints(DatabaseManifest manifest, DatasetSnapshot base) {
+        Set<String> changed = new HashSet<>();
+        for (DatabaseManifest.SprintEntry entry : manifest.sprints()) {
+            SprintData existing = base != null ? base.getSprint(entry.sprintId()) : null;
+            if (existing == null || !existing.isCurrent(entry)) {
+                changed.add(entry.sprintId());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Let the warmers prepare their results for a snapshot that is about to be published,
+     * with the current thread pinned to it. A failing warmer only costs the requests that hit its results.
+     */
+    private void warm(DatasetSnapshot previous, DatasetSnapshot next) {
+        long start = System.nanoTime();
+        try (Pin ignored = pinTo(next)) {
+            warmers.orderedStream().forEach(warmer -> {
+                try {
+                    warmer.warm(previous, next);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Failed to warm generation {} with {}: {}", next.getGeneration(),
+                            warmer.getClass().getSimpleName(), e.getMessage());
+                }
+            });
+        }
+        log.info("Warmed generation {} in {} ms", next.getGeneration(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Pin pinTo(DatasetSnapshot snapshot) {
+        Pin pin = new Pin(pins.get(), snapshot);
+        pins.set(pin);
+        return pin;
     }
-    
+
     /**
-     * Clear the cache to force reload on next fetch.
+     * Reload every sprint in the background; the current snapshot keeps being served until then.
      */
     public void clearCache() {
         log.info("Clearing sprint database cache");
-        sprintCache = null;
-        loaded = false;
+        fullReloadRequested = true;
+        if (current.get() != null) {
+            publishInBackground();
+        }
     }
-}
 
+    @PreDestroy
+    void shutdown() {
+        publisher.shutdownNow();
+    }
+
+    /**
+     * Snapshot pinned to a thread, released by {@link #close()}.
+     */
+    public final class Pin implements AutoCloseable {
+
+        private final Pin outer;
+        private final Pin root;
+        private DatasetSnapshot snapshot;
+
+        private Pin(Pin outer) {
+            this.outer = outer;
+            this.root = outer != null ? outer.root : this;
+        }
+
+        /**
+         * Pin to a given snapshot, independent of any enclosing pin.
+         */
+        private Pin(Pin outer, DatasetSnapshot snapshot) {
+            this.outer = outer;
+            this.root = this;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public void close() {
+            if (outer != null) {
+                pins.set(outer);
+            } else {
+                pins.remove();
+            }
+        }
+    }
+}
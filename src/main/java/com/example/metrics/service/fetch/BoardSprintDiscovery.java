@@ -0,0 +1,123 @@
+package com.example.metrics.service.fetch;
+
+import com.example.metrics.config.JiraProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Incremental sprint discovery through the agile board sprint listing.
+ * The board lists sprints in creation order, so a cursor past the leading run of closed sprints
+ * lets each run list only sprints that are new or may still change. The cursor and the highest
+ * sprint ID seen are persisted once a run has committed the sprints it discovered.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BoardSprintDiscovery {
+
+    private static final String BOARD_API_PATH = "/rest/agile/1.0/board/";
+    private static final String STATE_FILE = "tools/.fetch-checkpoint/sprint-discovery.json";
+    private static final int PAGE_SIZE = 50;
+
+    private final ObjectMapper objectMapper;
+    private final JiraHttpClient jiraHttpClient;
+    private final JiraProperties jiraProperties;
+
+    /**
+     * Sprints listed by one discovery pass.
+     *
+     * @param boardId         agile board that was listed
+     * @param sprintIds       started (active or closed) sprints listed from the cursor onwards
+     * @param newSprintIds    those with an ID above the highest seen by earlier runs
+     * @param startAt         board cursor the listing started from
+     * @param nextStartAt     cursor to persist once the discovered sprints are committed
+     * @param highestSprintId highest sprint ID seen, including this pass
+     */
+    public record Discovery(long boardId, Set<String> sprintIds, Set<String> newSprintIds,
+                            int startAt, int nextStartAt, long highestSprintId) {}
+
+    /**
+     * List the board's sprints from the persisted cursor, or from the start of the board.
+     * Future sprints are skipped; they are listed again once started.
+     */
+    public Discovery discover(long boardId, boolean fromStart, String cookieHeader) throws Exception {
+        JsonNode state = loadState();
+        boolean sameBoard = state.path("boardId").asLong(-1) == boardId;
+        int startAt = fromStart || !sameBoard ? 0 : state.path("nextStartAt").asInt(0);
+        long previousHighest = sameBoard ? state.path("highestSprintId").asLong(0) : 0;
+
+        Set<String> sprintIds = new LinkedHashSet<>();
+        Set<String> newSprintIds = new LinkedHashSet<>();
+        long highest = previousHighest;
+        int cursor = startAt;
+        boolean advancing = true;
+        int offset = startAt;
+        while (true) {
+            String url = jiraProperties.url(BOARD_API_PATH + boardId) + "/sprint?startAt=" + offset + "&maxResults=" + PAGE_SIZE;
+            JsonNode page = jiraHttpClient.get(url, cookieHeader);
+            JsonNode values = page != null ? page.path("values") : objectMapper.createArrayNode();
+            for (JsonNode sprint : values) {
+                long sprintId = sprint.path("id").asLong();
+                String sprintState = sprint.path("state").asText();
+                // Only closed sprints can no longer change, so the cursor stops at the first open one
+                advancing = advancing && "closed".equalsIgnoreCase(sprintState);
+                if (advancing) {
+                    cursor++;
+                }
+                if ("future".equalsIgnoreCase(sprintState)) {
+                    continue;
+                }
+                sprintIds.add(String.valueOf(sprintId));
+                if (sprintId > previousHighest) {
+                    newSprintIds.add(String.valueOf(sprintId));
+                }
+                highest = Math.max(highest, sprintId);
+            }
+            offset += values.size();
+            if (values.isEmpty() || page.path("isLast").asBoolean(true)) {
+                break;
+            }
+        }
+
+        log.info("Board {} listed {} started sprint(s) from position {} ({} new since last run)",
+                boardId, sprintIds.size(), startAt, newSprintIds.size());
+        return new Discovery(boardId, sprintIds, newSprintIds, startAt, cursor, highest);
+    }
+
+    /**
+     * Persist the cursor of a discovery whose sprints have all been committed.
+     * Until then the next run lists the same sprints again, so a failed run loses nothing.
+     */
+    public synchronized void commit(Discovery discovery) throws IOException {
+        ObjectNode state = objectMapper.createObjectNode();
+        state.put("boardId", discovery.boardId());
+        state.put("nextStartAt", discovery.nextStartAt());
+        state.put("highestSprintId", discovery.highestSprintId());
+        state.put("updatedAt", LocalDateTime.now(ZoneId.systemDefault()).toString());
+
+        Path target = Path.of(STATE_FILE);
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), state);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Board {} discovery cursor saved at {}", discovery.boardId(), discovery.nextStartAt());
+    }
+
+    private synchronized JsonNode loadState() throws IOException {
+        Path file = Path.of(STATE_FILE);
+        return Files.exists(file) ? objectMapper.readTree(file.toFile()) : objectMapper.createObjectNode();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.metrics.service.fetch;
+
+import com.example.metrics.config.JiraProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Completes changelogs that the search API truncated.
+ * With expand=changelog, search returns at most a fixed number of histories per issue, so
+ * long-lived issues arrive with a changelog whose total exceeds the histories returned.
+ * The missing histories are paged from the per-issue changelog endpoint, with a bounded
+ * number of issues fetched concurrently across all searches.
+ */
+@Slf4j
+@Component
+public class ChangelogCompleter {
+
+    private static final String ISSUE_API_PATH = "/rest/api/3/issue/";
+    private static final int MAX_RESULTS = 100;
+    private static final int MAX_CONCURRENT_FETCHES = 8;
+
+    private final JiraHttpClient jiraHttpClient;
+    private final ObjectMapper objectMapper;
+    private final JiraProperties jiraProperties;
+    private final ExecutorService executor = Executors.newFixedThreadPool(MAX_CONCURRENT_FETCHES);
+
+    public ChangelogCompleter(JiraHttpClient jiraHttpClient, ObjectMapper objectMapper,
+                              JiraProperties jiraProperties) {
+        this.jiraHttpClient = jiraHttpClient;
+        this.objectMapper = objectMapper;
+        this.jiraProperties = jiraProperties;
+    }
+
+    /**
+     * Complete every truncated changelog in a page of issues, in place.
+     * Pages without truncated changelogs return immediately without any request.
+     *
+     * @return number of issues whose changelog was completed
+     */
+    public int completeTruncated(JsonNode issues, String cookieHeader) throws Exception {
+        List<ObjectNode> truncated = new ArrayList<>();
+        for (JsonNode issue : issues) {
+            if (issue instanceof ObjectNode issueNode && isTruncated(issueNode)) {
+                truncated.add(issueNode);
+            }
+        }
+        if (truncated.isEmpty()) {
+            return 0;
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (ObjectNode issue : truncated) {
+            futures.add(executor.submit(() -> {
+                completeChangelog(issue, cookieHeader);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+
+        log.info("Completed {} truncated changelog(s)", truncated.size());
+        return truncated.size();
+    }
+
+    /**
+     * Whether the changelog reports more histories than it contains.
+     */
+    static boolean isTruncated(JsonNode issue) {
+        JsonNode changelog = issue.path("changelog");
+        return changelog.isObject() && changelog.path("total").asInt(0) > changelog.path("histories").size();
+    }
+
+    private void completeChangelog(ObjectNode issue, String cookieHeader) throws Exception {
+        String key = issue.path("key").asText();
+        ObjectNode changelog = (ObjectNode) issue.get("changelog");
+        int total = changelog.path("total").asInt(0);
+
+        Map<String, JsonNode> histories = new LinkedHashMap<>();
+        for (JsonNode history : changelog.path("histories")) {
+            histories.putIfAbsent(historyId(history), history);
+        }
+        int embedded = histories.size();
+
+        // The changelog endpoint lists histories oldest first; fetch the pages after those embedded
+        fetchHistories(key, embedded, histories, cookieHeader);
+        if (histories.size() < total) {
+            // Embedded histories were not the leading page; fill the remaining gaps from the start
+            fetchHistories(key, 0, histories, cookieHeader);
+        }
+
+        List<JsonNode> merged = new ArrayList<>(histories.values());
+        merged.sort((a, b) -> a.path("created").asText().compareTo(b.path("created").asText()));
+        ArrayNode mergedNode = objectMapper.createArrayNode();
+        merged.forEach(mergedNode::add);
+
+        changelog.put("startAt", 0);
+        changelog.put("maxResults", mergedNode.size());
+        changelog.put("total", Math.max(total, mergedNode.size()));
+        changelog.set("histories", mergedNode);
+        log.debug("Issue {} changelog completed: {} embedded, {} total", key, embedded, mergedNode.size());
+    }
+
+    private void fetchHistories(String key, int startAt, Map<String, JsonNode> histories, String cookieHeader)
+            throws Exception {
+        int offset = startAt;
+        while (true) {
+            String url = jiraProperties.url(ISSUE_API_PATH) + URLEncoder.encode(key, StandardCharsets.UTF_8) +
+                    "/changelog?startAt=" + offset + "&maxResults=" + MAX_RESULTS;
+            JsonNode page = jiraHttpClient.get(url, cookieHeader);
+            JsonNode values = page != null ? page.path("values") : objectMapper.createArrayNode();
+            for (JsonNode history : values) {
+                histories.putIfAbsent(historyId(history), history);
+            }
+            offset += values.size();
+
+            boolean isLast = page == null || values.isEmpty()
+                    || page.path("isLast").asBoolean(false)
+                    || offset >= page.path("total").asInt(Integer.MAX_VALUE);
+            if (isLast) {
+                return;
+            }
+        }
+    }
+
+    private String historyId(JsonNode history) {
+        return history.hasNonNull("id") ? history.get("id").asText() : history.toString();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
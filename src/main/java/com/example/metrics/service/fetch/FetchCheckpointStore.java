@@ -0,0 +1,137 @@
+package com.example.metrics.service.fetch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Checkpoint store for long-running sprint fetches.
+ * Fetched issues are streamed into a per-sprint staging file; the checkpoint records how much
+ * of that file is valid and the Jira nextPageToken to continue from, so an interrupted run
+ * can resume instead of starting over.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FetchCheckpointStore {
+
+    private static final String CHECKPOINT_DIR = "tools/.fetch-checkpoint";
+    private static final String CHECKPOINT_FILE = "checkpoint.json";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Progress of a sprint whose fetch has started but not been committed to the database.
+     */
+    public record SprintProgress(String sprintId, String nextPageToken, int issuesFetched,
+                                 long stagedBytes, String updatedAt) {}
+
+    /**
+     * Get the recorded progress for a sprint, if a previous run was interrupted while fetching it.
+     */
+    public synchronized Optional<SprintProgress> getProgress(String sprintId) throws IOException {
+        JsonNode entry = loadCheckpoint().path("sprints").path(sprintId);
+        if (entry.isMissingNode() || !entry.hasNonNull("nextPageToken")) {
+            return Optional.empty();
+        }
+        return Optional.of(new SprintProgress(
+                sprintId,
+                entry.get("nextPageToken").asText(),
+                entry.path("issuesFetched").asInt(0),
+                entry.path("stagedBytes").asLong(0),
+                entry.path("updatedAt").asText()));
+    }
+
+    /**
+     * Sprint IDs with an in-progress fetch recorded in the checkpoint.
+     */
+    public synchronized Set<String> getInProgressSprintIds() throws IOException {
+        Set<String> sprintIds = new LinkedHashSet<>();
+        loadCheckpoint().path("sprints").fieldNames().forEachRemaining(sprintIds::add);
+        return sprintIds;
+    }
+
+    /**
+     * Open the staging file for a sprint, continuing after the checkpointed data when resuming.
+     */
+    public SprintStagingFile openStaging(String sprintId, Optional<SprintProgress> progress) throws IOException {
+        long validBytes = progress.map(SprintProgress::stagedBytes).orElse(0L);
+        int validIssues = progress.map(SprintProgress::issuesFetched).orElse(0);
+        return SprintStagingFile.open(stagingFile(sprintId), objectMapper, validBytes, validIssues);
+    }
+
+    /**
+     * Record a fetched page. Must be called after the page has been appended to the staging file,
+     * so the checkpoint never points past data that is on disk.
+     */
+    public synchronized void recordPage(String sprintId, SprintStagingFile staging, String nextPageToken)
+            throws IOException {
+        ObjectNode checkpoint = loadCheckpoint();
+        ObjectNode sprints = checkpoint.withObjectProperty("sprints");
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("nextPageToken", nextPageToken);
+        entry.put("issuesFetched", staging.getIssueCount());
+        entry.put("stagedBytes", staging.getSize());
+        entry.put("updatedAt", LocalDateTime.now(ZoneId.systemDefault()).toString());
+        sprints.set(sprintId, entry);
+        checkpoint.put("updatedAt", LocalDateTime.now(ZoneId.systemDefault()).toString());
+        writeAtomically(checkpointFile(), checkpoint);
+        log.debug("Checkpointed sprint {} at {} issues", sprintId, staging.getIssueCount());
+    }
+
+    /**
+     * Remove a sprint from the checkpoint and delete its staging file, once it has been
+     * committed to the database or when its recorded progress can no longer be resumed.
+     */
+    public synchronized void clear(String sprintId) throws IOException {
+        ObjectNode checkpoint = loadCheckpoint();
+        ObjectNode sprints = checkpoint.withObjectProperty("sprints");
+        if (sprints.remove(sprintId) != null) {
+            if (sprints.isEmpty()) {
+                Files.deleteIfExists(checkpointFile());
+            } else {
+                writeAtomically(checkpointFile(), checkpoint);
+            }
+        }
+        Files.deleteIfExists(stagingFile(sprintId));
+    }
+
+    private ObjectNode loadCheckpoint() throws IOException {
+        File file = checkpointFile().toFile();
+        if (!file.exists()) {
+            ObjectNode checkpoint = objectMapper.createObjectNode();
+            checkpoint.putObject("sprints");
+            return checkpoint;
+        }
+        return (ObjectNode) objectMapper.readTree(file);
+    }
+
+    private void writeAtomically(Path target, JsonNode content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), content);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path checkpointFile() {
+        return Path.of(CHECKPOINT_DIR, CHECKPOINT_FILE);
+    }
+
+    private Path stagingFile(String sprintId) {
+        return Path.of(CHECKPOINT_DIR, "sprint-" + sprintId + ".staging.ndjson");
+    }
+}
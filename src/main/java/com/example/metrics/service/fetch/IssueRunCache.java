@@ -0,0 +1,99 @@
+package com.example.metrics.service.fetch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full issue payloads fetched during one sync run, keyed by issue key and "updated" timestamp.
+ * Issues carried over between sprints are downloaded once per run instead of once per sprint.
+ * Payloads are held serialized, up to a byte budget; once it is spent, new issues are simply not cached.
+ */
+public class IssueRunCache {
+
+    /**
+     * Default byte budget for cached payloads.
+     */
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private record CachedIssue(String updated, byte[] payload) {}
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final Map<String, CachedIssue> issues = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public IssueRunCache(ObjectMapper objectMapper) {
+        this(objectMapper, DEFAULT_MAX_BYTES);
+    }
+
+    public IssueRunCache(ObjectMapper objectMapper, long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Extract the "updated" timestamp used as the second half of the cache key.
+     */
+    public static String updatedOf(JsonNode issue) {
+        return issue.path("fields").path("updated").asText("");
+    }
+
+    public boolean isEmpty() {
+        return issues.isEmpty();
+    }
+
+    /**
+     * Cache a full issue payload, replacing any older version of the same issue.
+     */
+    public void put(JsonNode issue) throws IOException {
+        String key = issue.path("key").asText(null);
+        if (key == null) {
+            return;
+        }
+        byte[] payload = objectMapper.writeValueAsBytes(issue);
+        CachedIssue previous = issues.get(key);
+        long delta = payload.length - (previous != null ? previous.payload().length : 0);
+        if (cachedBytes.get() + delta > maxBytes) {
+            return;
+        }
+        issues.put(key, new CachedIssue(updatedOf(issue), payload));
+        cachedBytes.addAndGet(delta);
+    }
+
+    /**
+     * Look up an issue, counting the hit or miss.
+     *
+     * @return the cached payload, or null if the issue is not cached at this "updated" timestamp
+     */
+    public JsonNode get(String key, String updated) throws IOException {
+        CachedIssue cached = issues.get(key);
+        if (cached == null || !Objects.equals(cached.updated(), updated)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return objectMapper.readTree(cached.payload());
+    }
+
+    /**
+     * Hit/miss counts and cache size, for reporting in sync results.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedIssues", issues.size());
+        stats.put("cachedBytes", cachedBytes.get());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+}
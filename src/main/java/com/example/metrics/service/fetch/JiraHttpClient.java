@@ -0,0 +1,174 @@
+package com.example.metrics.service.fetch;
+
+import com.example.metrics.util.CountingInputStream;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Shared HTTP client for Jira REST calls.
+ * One pooled {@link HttpClient} keeps connections alive across requests and negotiates HTTP/2
+ * where the server supports it. Responses are requested gzip-compressed and decompressed while
+ * being parsed, so a page is never buffered as text. Rate-limited (429) and unavailable (503)
+ * responses are retried, honouring Retry-After when present and backing off exponentially otherwise;
+ * GETs are also retried when a pooled connection fails.
+ */
+@Slf4j
+@Component
+public class JiraHttpClient {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(500);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final DistributionSummary wireBytes;
+    private final DistributionSummary decodedBytes;
+
+    public JiraHttpClient(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        Gauge.builder("jira.http.requests.active", activeRequests, AtomicInteger::get)
+                .description("Jira requests currently in flight on the shared connection pool")
+                .register(meterRegistry);
+        this.wireBytes = DistributionSummary.builder("jira.http.response.bytes")
+                .description("Jira response body size as transferred")
+                .tag("encoding", "wire")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.decodedBytes = DistributionSummary.builder("jira.http.response.bytes")
+                .description("Jira response body size after decompression")
+                .tag("encoding", "decoded")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * GET a JSON resource.
+     */
+    public JsonNode get(String url, String cookieHeader) throws IOException, InterruptedException {
+        return send(newRequest(url, cookieHeader).GET().build());
+    }
+
+    /**
+     * POST a JSON body and read the JSON response.
+     */
+    public JsonNode post(String url, String cookieHeader, String jsonBody) throws IOException, InterruptedException {
+        HttpRequest request = newRequest(url, cookieHeader)
+                .header("Content-Type", "application/json")
+                // Cookie-authenticated POSTs must opt out of Jira's XSRF check
+                .header("X-Atlassian-Token", "no-check")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8))
+                .build();
+        return send(request);
+    }
+
+    private HttpRequest.Builder newRequest(String url, String cookieHeader) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Cookie", cookieHeader)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip");
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return sendOnce(request);
+            } catch (JiraHttpException e) {
+                if (!isRetryable(e.getStatus()) || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                Duration delay = e.getRetryAfter().orElse(INITIAL_BACKOFF.multipliedBy(1L << (attempt - 1)));
+                log.warn("HTTP {} for URL: {}, retrying in {} ms (attempt {}/{})",
+                        e.getStatus(), request.uri(), delay.toMillis(), attempt + 1, MAX_ATTEMPTS);
+                Thread.sleep(delay.toMillis());
+            } catch (IOException e) {
+                // Pooled connections can be closed by the server between requests; GETs are safe to repeat
+                if (!"GET".equals(request.method()) || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                Duration delay = INITIAL_BACKOFF.multipliedBy(1L << (attempt - 1));
+                log.warn("Request failed for URL: {} ({}), retrying in {} ms (attempt {}/{})",
+                        request.uri(), e.getMessage(), delay.toMillis(), attempt + 1, MAX_ATTEMPTS);
+                Thread.sleep(delay.toMillis());
+            }
+        }
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status == 503;
+    }
+
+    private JsonNode sendOnce(HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        activeRequests.incrementAndGet();
+        String status = "IO_ERROR";
+        String version = "unknown";
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            status = String.valueOf(response.statusCode());
+            version = response.version().name();
+
+            try (CountingInputStream wire = new CountingInputStream(response.body())) {
+                if (response.statusCode() >= 400) {
+                    if (!isRetryable(response.statusCode())) {
+                        log.error("HTTP Error {} for URL: {}", response.statusCode(), request.uri());
+                    }
+                    Duration retryAfter = response.headers().firstValue("Retry-After")
+                            .filter(value -> value.matches("\\d+"))
+                            .map(value -> Duration.ofSeconds(Long.parseLong(value)))
+                            .orElse(null);
+                    throw new JiraHttpException(response.statusCode(), request.uri().toString(), retryAfter);
+                }
+
+                boolean gzip = response.headers().firstValue("Content-Encoding")
+                        .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                        .orElse(false);
+                CountingInputStream decoded = gzip
+                        ? new CountingInputStream(new GZIPInputStream(wire, GZIP_BUFFER_SIZE))
+                        : wire;
+                JsonNode body = objectMapper.readTree(decoded);
+
+                wireBytes.record(wire.getCount());
+                decodedBytes.record(decoded.getCount());
+                return body;
+            }
+        } finally {
+            activeRequests.decrementAndGet();
+            Timer.builder("jira.http.requests")
+                    .description("Jira REST requests made through the shared client")
+                    .tag("status", status)
+                    .tag("version", version)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+}
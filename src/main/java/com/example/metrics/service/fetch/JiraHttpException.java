@@ -0,0 +1,34 @@
+package com.example.metrics.service.fetch;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Thrown when Jira answers a request with an HTTP error status.
+ */
+public class JiraHttpException extends RuntimeException {
+
+    private final int status;
+    private final Duration retryAfter;
+
+    public JiraHttpException(int status, String url) {
+        this(status, url, null);
+    }
+
+    public JiraHttpException(int status, String url, Duration retryAfter) {
+        super("HTTP Error " + status + " for URL: " + url);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Delay requested by the server's Retry-After header, if it sent one.
+     */
+    public Optional<Duration> getRetryAfter() {
+        return Optional.ofNullable(retryAfter);
+    }
+}
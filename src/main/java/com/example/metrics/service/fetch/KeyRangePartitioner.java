@@ -0,0 +1,96 @@
+package com.example.metrics.service.fetch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a JQL query into disjoint issue-key ranges so its pages can be fetched concurrently.
+ * Jira's nextPageToken pagination is strictly sequential, but each key range has its own token chain.
+ */
+public final class KeyRangePartitioner {
+
+    /**
+     * Target number of issues per partition; smaller queries are not worth splitting.
+     */
+    public static final int ISSUES_PER_PARTITION = 500;
+
+    private static final Pattern ISSUE_KEY = Pattern.compile("^([A-Z][A-Z0-9_]*)-(\\d+)$");
+
+    private KeyRangePartitioner() {
+    }
+
+    /**
+     * Number of partitions for a query reporting the given issue count.
+     */
+    public static int partitionCount(int issueCount, int maxPartitions) {
+        int partitions = (issueCount + ISSUES_PER_PARTITION - 1) / ISSUES_PER_PARTITION;
+        return Math.max(1, Math.min(partitions, maxPartitions));
+    }
+
+    /**
+     * Split a query into key-range sub-queries covering every issue between the lowest and highest key.
+     * The first range is open below and the last open above, so issues created mid-fetch are not lost.
+     * Keys from different projects are not ordered by number, so such queries are returned unsplit.
+     *
+     * @param jql        query without an ORDER BY clause
+     * @param lowestKey  lowest issue key matched by the query
+     * @param highestKey highest issue key matched by the query
+     * @param partitions desired number of partitions
+     * @return the sub-queries, or a single-element list containing the original query
+     */
+    public static List<String> partition(String jql, String lowestKey, String highestKey, int partitions) {
+        Matcher low = ISSUE_KEY.matcher(lowestKey == null ? "" : lowestKey);
+        Matcher high = ISSUE_KEY.matcher(highestKey == null ? "" : highestKey);
+        if (partitions < 2 || !low.matches() || !high.matches() || !low.group(1).equals(high.group(1))) {
+            return List.of(jql);
+        }
+
+        String project = low.group(1);
+        long lowNumber = Long.parseLong(low.group(2));
+        long highNumber = Long.parseLong(high.group(2));
+        long span = highNumber - lowNumber + 1;
+        if (span < 2) {
+            return List.of(jql);
+        }
+
+        int count = (int) Math.min(partitions, span);
+        long step = (span + count - 1) / count;
+        List<String> ranges = new ArrayList<>(count);
+        String lowerBound = null;
+        for (int i = 1; i <= count; i++) {
+            long boundary = lowNumber + i * step;
+            String upperBound = i < count && boundary <= highNumber ? project + "-" + boundary : null;
+            StringBuilder range = new StringBuilder("(").append(jql).append(")");
+            if (lowerBound != null) {
+                range.append(" AND key >= ").append(lowerBound);
+            }
+            if (upperBound != null) {
+                range.append(" AND key < ").append(upperBound);
+            }
+            ranges.add(range.toString());
+            if (upperBound == null) {
+                break;
+            }
+            lowerBound = upperBound;
+        }
+        return ranges;
+    }
+
+    /**
+     * Narrow a range to the keys after one already fetched, so that a page fetched before splitting
+     * (the first page of the whole query, holding the lowest keys) is not fetched again.
+     *
+     * @param range      one of the ranges returned by {@link #partition}
+     * @param fetchedKey highest key already fetched
+     * @return the narrowed range, or the range itself if the key is not a plain issue key
+     */
+    public static String after(String range, String fetchedKey) {
+        Matcher key = ISSUE_KEY.matcher(fetchedKey == null ? "" : fetchedKey);
+        if (!key.matches()) {
+            return range;
+        }
+        return range + " AND key >= " + key.group(1) + "-" + (Long.parseLong(key.group(2)) + 1);
+    }
+}
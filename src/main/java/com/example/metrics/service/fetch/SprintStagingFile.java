@@ -0,0 +1,98 @@
+package com.example.metrics.service.fetch;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Per-sprint staging file that fetched issues are streamed into, one JSON document per line.
+ * Each page is flushed and forced to disk before it is checkpointed, so a resumed fetch can
+ * truncate back to the last checkpointed length and append from there.
+ */
+public final class SprintStagingFile implements Closeable {
+
+    private final Path path;
+    private final FileChannel channel;
+    private final JsonGenerator generator;
+    private final ObjectMapper objectMapper;
+    private int issueCount;
+
+    private SprintStagingFile(Path path, FileChannel channel, JsonGenerator generator,
+                              ObjectMapper objectMapper, int issueCount) {
+        this.path = path;
+        this.channel = channel;
+        this.generator = generator;
+        this.objectMapper = objectMapper;
+        this.issueCount = issueCount;
+    }
+
+    /**
+     * Create an empty staging file, replacing any existing content.
+     */
+    public static SprintStagingFile create(Path path, ObjectMapper objectMapper) throws IOException {
+        return open(path, objectMapper, 0, 0);
+    }
+
+    /**
+     * Open a staging file, keeping the first {@code validBytes} bytes written by a previous run.
+     * Anything after that offset belongs to a page that was never checkpointed and is discarded.
+     */
+    static SprintStagingFile open(Path path, ObjectMapper objectMapper, long validBytes, int validIssues)
+            throws IOException {
+        Files.createDirectories(path.getParent());
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            channel.truncate(validBytes);
+            channel.position(validBytes);
+            JsonGenerator generator = objectMapper.getFactory()
+                    .createGenerator(Channels.newOutputStream(channel), JsonEncoding.UTF8);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            return new SprintStagingFile(path, channel, generator, objectMapper, validIssues);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append a page of issues and force it to disk.
+     */
+    public void appendIssues(JsonNode issues) throws IOException {
+        for (JsonNode issue : issues) {
+            objectMapper.writeTree(generator, issue);
+            issueCount++;
+        }
+        generator.flush();
+        channel.force(false);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getIssueCount() {
+        return issueCount;
+    }
+
+    /**
+     * Number of bytes durably written so far.
+     */
+    public long getSize() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.metrics.service.storage;
+
+import com.example.metrics.model.dto.SprintSummary;
+import com.example.metrics.service.MetricDefinitions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summaries of closed sprints, computed once and kept next to the sprint database in
+ * {@value #SUMMARIES_FILE}. A closed sprint does not change any more, so its summary is served from
+ * here without reading its issues, as long as the sprint in the database is still the one fetched when
+ * it was frozen. The file is discarded when {@link MetricDefinitions#VERSION} changes, and can be cleared
+ * by an admin to force a recompute.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClosedSprintSummaryStore {
+
+    public static final String SUMMARIES_FILE = "tools/jira-sprint-summaries.json";
+
+    private final ObjectMapper objectMapper;
+    private volatile Map<String, FrozenSummary> summaries;
+
+    /**
+     * Summary of a closed sprint.
+     *
+     * @param fetchedAt when the sprint's issues it was computed from were fetched, as in the database manifest
+     */
+    public record FrozenSummary(String fetchedAt, SprintSummary summary) {
+    }
+
+    /**
+     * Stored file: the metric definitions version and the frozen summaries.
+     */
+    record SummariesFile(int definitionsVersion, List<FrozenSummary> sprints) {
+    }
+
+    /**
+     * Frozen summaries by sprint id.
+     */
+    public Map<String, FrozenSummary> getSummaries() {
+        Map<String, FrozenSummary> loaded = summaries;
+        if (loaded == null) {
+            synchronized (this) {
+                if (summaries == null) {
+                    summaries = load();
+                }
+                loaded = summaries;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Add summaries of sprints that were found closed. A failure to persist them is only logged;
+     * they are then computed again after a restart.
+     */
+    public synchronized void freeze(Collection<FrozenSummary> closedSprints) {
+        Map<String, FrozenSummary> updated = new LinkedHashMap<>(getSummaries());
+        int changed = 0;
+        for (FrozenSummary frozen : closedSprints) {
+            if (!frozen.equals(updated.put(frozen.summary().sprintId(), frozen))) {
+                changed++;
+            }
+        }
+        if (changed == 0) {
+            return;
+        }
+        summaries = Map.copyOf(updated);
+        try {
+            save(updated.values());
+            log.info("Froze {} closed sprint summaries ({} in total)", changed, updated.size());
+        } catch (IOException e) {
+            log.warn("Failed to save closed sprint summaries: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Forget every frozen summary, so that closed sprints are computed again from their issues.
+     *
+     * @return the number of summaries dropped
+     */
+    public synchronized int clear() throws IOException {
+        int dropped = getSummaries().size();
+        summaries = Map.of();
+        Files.deleteIfExists(Path.of(SUMMARIES_FILE));
+        log.info("Cleared {} frozen closed sprint summaries", dropped);
+        return dropped;
+    }
+
+    private Map<String, FrozenSummary> load() {
+        Path file = Path.of(SUMMARIES_FILE);
+        if (!Files.exists(file)) {
+            return Map.of();
+        }
+        try {
+            SummariesFile stored = objectMapper.readValue(file.toFile(), SummariesFile.class);
+            if (stored.definitionsVersion() != MetricDefinitions.VERSION) {
+                log.info("Discarding closed sprint summaries computed with metric definitions version {}"
+                        + " (current is {})", stored.definitionsVersion(), MetricDefinitions.VERSION);
+                return Map.of();
+            }
+            Map<String, FrozenSummary> loaded = new LinkedHashMap<>();
+            for (FrozenSummary frozen : stored.sprints()) {
+                loaded.put(frozen.summary().sprintId(), frozen);
+            }
+            log.info("Loaded {} frozen closed sprint summaries", loaded.size());
+            return Map.copyOf(loaded);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable {}: {}", SUMMARIES_FILE, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private void save(Collection<FrozenSummary> sprints) throws IOException {
+        Path file = Path.of(SUMMARIES_FILE);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(tempFile.toFile(), new SummariesFile(MetricDefinitions.VERSION, List.copyOf(sprints)));
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
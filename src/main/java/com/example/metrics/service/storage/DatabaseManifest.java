@@ -0,0 +1,40 @@
+package com.example.metrics.service.storage;
+
+import java.util.List;
+
+/**
+ * Summary of the sprint master database: one entry per sprint, without any issues.
+ * Kept next to the database file and republished on every write, with a generation number
+ * that increases each time the database changes.
+ *
+ * @param fileSize         size of the database file this manifest describes
+ * @param fileLastModified modification time (epoch millis) of the database file this manifest describes
+ * @param checksum         seal of the database file, or null if the file is not sealed
+ */
+public record DatabaseManifest(
+        long generation,
+        String created,
+        String lastUpdated,
+        int totalIssues,
+        long fileSize,
+        long fileLastModified,
+        String checksum,
+        List<SprintEntry> sprints) {
+
+    public record SprintEntry(String sprintId, int issueCount, String fetchedAt) {}
+
+    public DatabaseManifest {
+        sprints = List.copyOf(sprints);
+    }
+
+    public int totalSprints() {
+        return sprints.size();
+    }
+
+    /**
+     * Whether this manifest still describes the database file with the given size and modification time.
+     */
+    public boolean describes(long size, long lastModified) {
+        return fileSize == size && fileLastModified == lastModified;
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.metrics.service.storage;
+
+import com.example.metrics.config.DatasetHistoryProperties;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Past generations of the sprint database, kept as reverse deltas.
+ * <p>
+ * When a write turns generation N into N+1, the sprints it replaces are copied, as they were in N,
+ * into {@code generation-N.json.gz} together with N's manifest. Generation N is then the sprints
+ * of N+1, minus those added by the write, with the replaced ones swapped back. Only the last
+ * {@code retainedGenerations - 1} deltas are kept.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GenerationHistory {
+
+    public static final String HISTORY_DIRECTORY = "tools/.history";
+
+    private static final Pattern DELTA_FILE = Pattern.compile("generation-(\\d+)\\.json\\.gz");
+
+    private final ObjectMapper objectMapper;
+    private final DatasetHistoryProperties properties;
+    private final Map<Long, Delta> headers = new ConcurrentHashMap<>();
+
+    /**
+     * Header of the delta that restores a generation from its successor.
+     *
+     * @param supersededAt when the successor was written, i.e. the end of this generation's lifetime
+     * @param manifest     manifest of the generation, listing its sprints in order
+     */
+    public record Delta(long generation, String supersededAt, DatabaseManifest manifest) {
+
+        /**
+         * Start of this generation's lifetime.
+         */
+        public String lastUpdated() {
+            return manifest.lastUpdated();
+        }
+    }
+
+    /**
+     * Copies replaced sprints into a new delta while the database is rewritten.
+     * Nothing becomes visible until {@link #commit()}.
+     */
+    public final class Recorder {
+
+        private final long generation;
+        private final Path tempFile;
+        private final JsonGenerator out;
+
+        private Recorder(long generation, Path tempFile, JsonGenerator out) {
+            this.generation = generation;
+            this.tempFile = tempFile;
+            this.out = out;
+        }
+
+        /**
+         * Copy the sprint object the parser is positioned at, as it was in the superseded generation.
+         */
+        public void recordSprint(String sprintId, JsonParser in) throws IOException {
+            out.writeFieldName(sprintId);
+            out.copyCurrentStructure(in);
+        }
+
+        /**
+         * Publish the delta once the successor generation is in place, then prune old deltas.
+         */
+        public void commit() throws IOException {
+            out.writeEndObject();
+            out.writeEndObject();
+            out.close();
+            Files.move(tempFile, deltaFile(generation), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            headers.remove(generation);
+            prune(generation + 1);
+        }
+
+        /**
+         * Drop the delta because the write failed.
+         */
+        public void discard() {
+            try {
+                out.close();
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Failed to discard generation delta {}: {}", tempFile, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Start recording the delta for a generation that is about to be superseded.
+     *
+     * @return null if history is disabled or there is no previous database to keep
+     */
+    public Recorder record(DatabaseManifest superseded, String supersededAt) throws IOException {
+        if (properties.retainedGenerations() <= 1 || superseded.fileSize() < 0) {
+            return null;
+        }
+        Path directory = Path.of(HISTORY_DIRECTORY);
+        Files.createDirectories(directory);
+        Path tempFile = directory.resolve("generation-" + superseded.generation() + ".json.gz.tmp");
+        OutputStream file = Files.newOutputStream(tempFile);
+        JsonGenerator out;
+        try {
+            out = objectMapper.getFactory().createGenerator(new GZIPOutputStream(file, 64 * 1024), JsonEncoding.UTF8);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        // Header fields first, so listing the history does not need to read past them
+        out.writeStartObject();
+        out.writeNumberField("generation", superseded.generation());
+        out.writeStringField("supersededAt", supersededAt);
+        out.writeFieldName("manifest");
+        objectMapper.writeValue(out, superseded);
+        out.writeObjectFieldStart("sprints");
+        return new Recorder(superseded.generation(), tempFile, out);
+    }
+
+    /**
+     * Retained deltas, newest first.
+     */
+    public List<Delta> list() throws IOException {
+        List<Delta> deltas = new ArrayList<>();
+        for (long generation : retainedGenerations()) {
+            delta(generation).ifPresent(deltas::add);
+        }
+        deltas.sort(Comparator.comparingLong(Delta::generation).reversed());
+        return deltas;
+    }
+
+    /**
+     * Header of the delta restoring the given generation, if it is retained.
+     */
+    public Optional<Delta> delta(long generation) throws IOException {
+        Delta cached = headers.get(generation);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Path file = deltaFile(generation);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (JsonParser in = openDelta(file)) {
+            String supersededAt = null;
+            DatabaseManifest manifest = null;
+            if (in.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Invalid generation delta " + file + ": expected object at root");
+            }
+            while (in.nextToken() == JsonToken.FIELD_NAME && (supersededAt == null || manifest == null)) {
+                String field = in.currentName();
+                in.nextToken();
+                switch (field) {
+                    case "supersededAt" -> supersededAt = in.getValueAsString();
+                    case "manifest" -> manifest = objectMapper.readValue(in, DatabaseManifest.class);
+                    default -> in.skipChildren();
+                }
+            }
+            if (manifest == null) {
+                throw new IOException("Invalid generation delta " + file + ": no manifest");
+            }
+            Delta delta = new Delta(generation, supersededAt, manifest);
+            headers.put(generation, delta);
+            return Optional.of(delta);
+        }
+    }
+
+    /**
+     * Stream the issues of selected sprints, as they were in the given generation, out of its delta.
+     */
+    public void readSprints(long generation, Set<String> sprintIds, SprintDatabaseStore.IssueVisitor visitor)
+            throws IOException {
+        try (JsonParser in = openDelta(deltaFile(generation))) {
+            if (in.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Invalid generation delta for generation " + generation
+                        + ": expected object at root");
+            }
+            while (in.nextToken() == JsonToken.FIELD_NAME) {
+                String field = in.currentName();
+                in.nextToken();
+                if (!"sprints".equals(field)) {
+                    in.skipChildren();
+                    continue;
+                }
+                while (in.nextToken() == JsonToken.FIELD_NAME) {
+                    String sprintId = in.currentName();
+                    in.nextToken();
+                    if (!sprintIds.contains(sprintId)) {
+                        in.skipChildren();
+                        continue;
+                    }
+                    while (in.nextToken() == JsonToken.FIELD_NAME) {
+                        String sprintField = in.currentName();
+                        if (in.nextToken() == JsonToken.START_ARRAY && "issues".equals(sprintField)) {
+                            while (in.nextToken() != JsonToken.END_ARRAY) {
+                                visitor.visitIssue(sprintId, in.readValueAsTree());
+                            }
+                        } else {
+                            in.skipChildren();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete deltas that fall outside the retention window behind the given head generation,
+     * and any left ahead of it by a database whose generations started over.
+     */
+    void prune(long headGeneration) throws IOException {
+        long oldestRetained = headGeneration - properties.retainedGenerations() + 1;
+        for (long generation : retainedGenerations()) {
+            if (generation < oldestRetained || generation >= headGeneration) {
+                Files.deleteIfExists(deltaFile(generation));
+                headers.remove(generation);
+                log.debug("Pruned generation delta {}", generation);
+            }
+        }
+    }
+
+    private List<Long> retainedGenerations() throws IOException {
+        Path directory = Path.of(HISTORY_DIRECTORY);
+        List<Long> generations = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return generations;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = DELTA_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        return generations;
+    }
+
+    private JsonParser openDelta(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            return objectMapper.getFactory().createParser(new GZIPInputStream(in, 64 * 1024));
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private static Path deltaFile(long generation) {
+        return Path.of(HISTORY_DIRECTORY, "generation-" + generation + ".json.gz");
+    }
+}
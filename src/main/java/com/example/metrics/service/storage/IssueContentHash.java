@@ -0,0 +1,86 @@
+package com.example.metrics.service.storage;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Stable hash of an issue's content: the first 128 bits of the SHA-256 of its canonical JSON,
+ * with object fields sorted by name so that field order does not matter.
+ * The hash is stored with each issue in the {@value #FIELD} field, which is itself left out of the hash.
+ */
+public final class IssueContentHash {
+
+    public static final String FIELD = "contentHash";
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int HASH_BYTES = 16;
+
+    private IssueContentHash() {
+    }
+
+    /**
+     * @return the hash as 32 lowercase hex digits
+     */
+    public static String of(JsonNode issue) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        OutputStream hashed = new DigestOutputStream(OutputStream.nullOutputStream(), digest);
+        try (JsonGenerator out = JSON.createGenerator(hashed)) {
+            writeCanonical(out, issue, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] hash = digest.digest();
+        return HexFormat.of().formatHex(hash, 0, HASH_BYTES);
+    }
+
+    private static void writeCanonical(JsonGenerator out, JsonNode node, boolean root) throws IOException {
+        if (node.isObject()) {
+            List<String> names = new ArrayList<>();
+            Iterator<String> fieldNames = node.fieldNames();
+            fieldNames.forEachRemaining(names::add);
+            if (root) {
+                names.remove(FIELD);
+            }
+            names.sort(null);
+            out.writeStartObject();
+            for (String name : names) {
+                out.writeFieldName(name);
+                writeCanonical(out, node.get(name), false);
+            }
+            out.writeEndObject();
+        } else if (node.isArray()) {
+            out.writeStartArray();
+            for (JsonNode element : node) {
+                writeCanonical(out, element, false);
+            }
+            out.writeEndArray();
+        } else if (node.isTextual()) {
+            out.writeString(node.textValue());
+        } else if (node.isNumber()) {
+            out.writeNumber(node.asText());
+        } else if (node.isBoolean()) {
+            out.writeBoolean(node.booleanValue());
+        } else if (node.isNull() || node.isMissingNode()) {
+            out.writeNull();
+        } else {
+            out.writeString(node.asText());
+        }
+    }
+}
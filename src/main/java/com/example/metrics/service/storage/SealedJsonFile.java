@@ -0,0 +1,159 @@
+package com.example.metrics.service.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * Crash-safe replacement of a JSON object file shared with other processes.
+ * <p>
+ * Writers hold an exclusive lock on a sibling ".lock" file, write a temp file, seal it and force
+ * it to disk, then rename it over the target. The seal is a trailing {@code "checksum"} field with
+ * the CRC32C of every byte before it, so a reader can tell a torn or partial file from a complete one.
+ * The standalone tools (tools/SprintDatabaseFile.java) implement the same protocol.
+ */
+final class SealedJsonFile {
+
+    private static final String CHECKSUM_FIELD = "\"checksum\"";
+    private static final Pattern SEAL = Pattern.compile(
+            "\"checksum\"\\s*:\\s*\"crc32c:([0-9a-f]{8})\"\\s*}\\s*$");
+    private static final int TAIL_BYTES = 256;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private SealedJsonFile() {
+    }
+
+    /**
+     * Exclusive lock shared by every process writing the file, released on close.
+     */
+    static Closeable lock(Path file) throws IOException {
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        Files.createDirectories(lockFile.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.lock();
+            return () -> {
+                try (channel) {
+                    lock.release();
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append the checksum field to a complete JSON object file and force it to disk.
+     *
+     * @return the checksum, e.g. "crc32c:1a2b3c4d"
+     */
+    static String seal(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Find the object's closing brace and the last character of its content
+            String tail = readTail(channel);
+            long tailStart = channel.size() - tail.length();
+            int close = tail.lastIndexOf('}');
+            int contentEnd = close - 1;
+            while (contentEnd >= 0 && Character.isWhitespace(tail.charAt(contentEnd))) {
+                contentEnd--;
+            }
+            if (close < 0 || contentEnd < 0) {
+                throw new IOException("Cannot seal " + file + ": not a JSON object");
+            }
+            long prefixLength = tailStart + contentEnd + 1;
+            String separator = tail.charAt(contentEnd) == '{' ? "\n  " : ",\n  ";
+
+            CRC32C crc = checksumPrefix(channel, prefixLength);
+            crc.update(separator.getBytes(StandardCharsets.UTF_8));
+            String checksum = String.format("crc32c:%08x", crc.getValue());
+            String sealField = separator + CHECKSUM_FIELD + " : \"" + checksum + "\"\n}\n";
+            byte[] seal = sealField.getBytes(StandardCharsets.UTF_8);
+
+            channel.truncate(prefixLength);
+            channel.write(ByteBuffer.wrap(seal), prefixLength);
+            channel.force(true);
+            return checksum;
+        }
+    }
+
+    /**
+     * Check a file's seal.
+     *
+     * @return the checksum, or null if the file was never sealed (written before sealing was introduced)
+     * @throws IOException if the file is sealed but its content does not match the checksum
+     */
+    static String verify(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            String tail = readTail(channel);
+            Matcher seal = SEAL.matcher(tail);
+            if (!seal.find()) {
+                return null;
+            }
+            int fieldStart = tail.lastIndexOf(CHECKSUM_FIELD);
+            long prefixLength = channel.size() - tail.length() + fieldStart;
+            String expected = "crc32c:" + seal.group(1);
+            String actual = String.format("crc32c:%08x", checksumPrefix(channel, prefixLength).getValue());
+            if (!expected.equals(actual)) {
+                throw new IOException("Corrupt " + file + ": checksum " + actual + " does not match seal " + expected);
+            }
+            return expected;
+        }
+    }
+
+    /**
+     * Move a sealed temp file over the target and make the rename durable.
+     */
+    static void replace(Path tempFile, Path target) throws IOException {
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Path directory = target.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can sync a directory; the rename itself is still atomic
+        }
+    }
+
+    /**
+     * Last bytes of the file, one char per byte so that string offsets are byte offsets.
+     */
+    private static String readTail(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int length = (int) Math.min(size, TAIL_BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, size - length + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static CRC32C checksumPrefix(FileChannel channel, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long position = 0;
+        while (position < length) {
+            buffer.clear();
+            buffer.limit((int) Math.min(BUFFER_SIZE, length - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("File shrank while computing checksum");
+            }
+            buffer.flip();
+            crc.update(buffer);
+            position += read;
+        }
+        return crc;
+    }
+}
@@ -0,0 +1,622 @@
+package com.example.metrics.service.storage;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Streaming access to the sprint master database (jira-sprint-database.json).
+ * Reads and rewrites the file token by token, so memory use does not grow with database size.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SprintDatabaseStore {
+
+    public static final String DATABASE_FILE = "tools/jira-sprint-database.json";
+    public static final String MANIFEST_FILE = "tools/jira-sprint-database.manifest.json";
+
+    private final ObjectMapper objectMapper;
+    private final GenerationHistory history;
+    private final AtomicReference<DatabaseManifest> manifest = new AtomicReference<>();
+    private final AtomicReference<RejectedFile> rejected = new AtomicReference<>();
+    private final Object manifestLock = new Object();
+
+    /**
+     * The issues of one sprint to be written. Read twice: once to compare them with the stored sprint,
+     * once to write them.
+     */
+    @FunctionalInterface
+    public interface IssueStream {
+        void forEachIssue(IssueConsumer consumer) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface IssueConsumer {
+        void accept(JsonNode issue) throws IOException;
+    }
+
+    /**
+     * Outcome of replacing one sprint. Issues are compared with the stored sprint by content hash;
+     * a sprint whose issues are all unchanged is not written at all.
+     *
+     * @param changedIssues   issues that are new to the sprint or whose content changed
+     * @param unchangedIssues issues stored with the same content hash
+     * @param removedIssues   stored issues that are no longer in the sprint
+     * @param written         false if the sprint was left untouched because nothing in it changed
+     */
+    public record SprintWrite(int issueCount, int changedIssues, int unchangedIssues, int removedIssues,
+                              boolean written) {}
+
+    /**
+     * Receives the issues of the sprints being read, one at a time.
+     */
+    @FunctionalInterface
+    public interface IssueVisitor {
+        void visitIssue(String sprintId, JsonNode issue) throws IOException;
+    }
+
+    /**
+     * Issue stream that copies a newline-delimited JSON staging file.
+     */
+    public IssueStream fromNdjson(Path stagingFile) {
+        return consumer -> {
+            try (JsonParser in = objectMapper.getFactory().createParser(stagingFile.toFile())) {
+                while (in.nextToken() != null) {
+                    consumer.accept(in.readValueAsTree());
+                }
+            }
+        };
+    }
+
+    /**
+     * Read the issue count of every sprint from the manifest.
+     *
+     * @return sprint ID to totalIssues, in file order
+     */
+    public Map<String, Integer> readSprintIssueCounts() throws IOException {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (DatabaseManifest.SprintEntry sprint : getManifest().sprints()) {
+            counts.put(sprint.sprintId(), sprint.issueCount());
+        }
+        return counts;
+    }
+
+    /**
+     * Current manifest of the database, served from memory.
+     * Costs one file stat per call; the manifest is only rebuilt when the database file was
+     * changed by something other than this store (e.g. a standalone fetcher tool).
+     */
+    public DatabaseManifest getManifest() throws IOException {
+        Path dbFile = Path.of(DATABASE_FILE);
+        DatabaseManifest current = manifest.get();
+        if (current != null && FileStamp.of(dbFile).matches(current)) {
+            return current;
+        }
+        synchronized (manifestLock) {
+            current = manifest.get();
+            FileStamp stamp = FileStamp.of(dbFile);
+            if (current != null && stamp.matches(current)) {
+                return current;
+            }
+            RejectedFile rejectedFile = rejected.get();
+            if (rejectedFile != null && rejectedFile.stamp().equals(stamp)) {
+                // Checked already; don't read the whole file again on every call
+                throw new IOException(rejectedFile.reason());
+            }
+            DatabaseManifest stored = current != null ? current : readStoredManifest();
+            if (stored != null && stamp.matches(stored)) {
+                manifest.set(stored);
+                return stored;
+            }
+            long generation = stored != null ? stored.generation() + 1 : 1;
+            log.info("Rebuilding sprint database manifest (generation {})", generation);
+            DatabaseManifest rebuilt;
+            try {
+                rebuilt = scanManifest(dbFile, generation);
+            } catch (IOException e) {
+                log.error("Sprint database {} cannot be read: {}", DATABASE_FILE, e.getMessage());
+                rejected.set(new RejectedFile(stamp, e.getMessage()));
+                throw e;
+            }
+            publishManifest(rebuilt);
+            return rebuilt;
+        }
+    }
+
+    /**
+     * Stream the issues of selected sprints out of the database.
+     * The file is opened together with the manifest describing it, so the issues read always belong
+     * to the returned manifest's generation even if a write lands while they are being read.
+     *
+     * @param selector picks the sprints to read, given the manifest of the file being read
+     * @return manifest of the file that was read
+     */
+    public DatabaseManifest readSprints(Function<DatabaseManifest, Set<String>> selector, IssueVisitor visitor)
+            throws IOException {
+        Path dbFile = Path.of(DATABASE_FILE);
+        DatabaseManifest opened;
+        JsonParser in;
+        synchronized (manifestLock) {
+            opened = getManifest();
+            if (opened.fileSize() < 0) {
+                return opened;
+            }
+            in = objectMapper.getFactory().createParser(dbFile.toFile());
+        }
+
+        Set<String> sprintIds = selector.apply(opened);
+        try (in) {
+            if (!sprintIds.isEmpty()) {
+                forEachSprint(in, sprintIds, visitor);
+            }
+        }
+        return opened;
+    }
+
+    /**
+     * Hand the issues of the selected sprints in a database file to the visitor.
+     */
+    private void forEachSprint(JsonParser in, Set<String> sprintIds, IssueVisitor visitor) throws IOException {
+        if (in.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Invalid sprint database: expected object at root");
+        }
+        while (in.nextToken() == JsonToken.FIELD_NAME) {
+            String field = in.currentName();
+            in.nextToken();
+            if (!"sprints".equals(field) || in.currentToken() != JsonToken.START_OBJECT) {
+                in.skipChildren();
+                continue;
+            }
+            while (in.nextToken() == JsonToken.FIELD_NAME) {
+                String sprintId = in.currentName();
+                in.nextToken();
+                if (sprintIds.contains(sprintId)) {
+                    readSprintIssues(in, sprintId, visitor);
+                } else {
+                    in.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace (or add) the given sprints in a single streaming rewrite of the database file.
+     * Untouched sprints are copied token by token. The rewrite holds the database lock shared with
+     * the standalone tools, and the new file is sealed, forced to disk and moved into place atomically.
+     * The replaced sprints are kept in the {@link GenerationHistory} as they were before the write.
+     * <p>
+     * Every issue is stored with a {@code contentHash}. Sprints whose issues all match the stored hashes
+     * are skipped, and if no sprint changed the database is not rewritten and no new generation starts.
+     *
+     * @return sprint ID to the outcome for that sprint
+     */
+    public synchronized Map<String, SprintWrite> replaceSprints(Map<String, IssueStream> replacements)
+            throws IOException {
+        Path dbFile = Path.of(DATABASE_FILE);
+        Files.createDirectories(dbFile.toAbsolutePath().getParent());
+        try (Closeable ignored = SealedJsonFile.lock(dbFile)) {
+            return replaceSprintsLocked(dbFile, replacements);
+        }
+    }
+
+    private Map<String, SprintWrite> replaceSprintsLocked(Path dbFile, Map<String, IssueStream> allReplacements)
+            throws IOException {
+        DatabaseManifest previous = getManifest();
+        Map<String, SprintWrite> outcomes = compareWithStored(previous, dbFile, allReplacements);
+        Map<String, IssueStream> replacements = new LinkedHashMap<>();
+        allReplacements.forEach((sprintId, issues) -> {
+            if (outcomes.get(sprintId).written()) {
+                replacements.put(sprintId, issues);
+            }
+        });
+        if (replacements.isEmpty()) {
+            log.info("Master database unchanged: all {} sprint(s) match the stored content", outcomes.size());
+            return outcomes;
+        }
+
+        Path tempFile = dbFile.resolveSibling(dbFile.getFileName() + ".tmp");
+        String now = LocalDateTime.now(ZoneId.systemDefault()).toString();
+        JsonFactory factory = objectMapper.getFactory();
+        Map<String, Integer> written = new LinkedHashMap<>();
+        Set<String> pending = new LinkedHashSet<>(replacements.keySet());
+        GenerationHistory.Recorder recorder = history.record(previous, now);
+        int totalSprints = 0;
+
+        try {
+            try (JsonGenerator out = factory.createGenerator(tempFile.toFile(), JsonEncoding.UTF8)) {
+                out.useDefaultPrettyPrinter();
+                out.writeStartObject();
+
+                if (Files.exists(dbFile)) {
+                    try (JsonParser in = factory.createParser(dbFile.toFile())) {
+                        if (in.nextToken() != JsonToken.START_OBJECT) {
+                            throw new IOException("Invalid sprint database: expected object at root");
+                        }
+                        while (in.nextToken() == JsonToken.FIELD_NAME) {
+                            String field = in.currentName();
+                            in.nextToken();
+                            switch (field) {
+                                case "sprints" -> totalSprints =
+                                        copySprints(in, out, replacements, pending, written, now, recorder);
+                                // Rewritten below once the sprint count is known, and resealed
+                                case "lastUpdated", "totalSprints", "checksum" -> in.skipChildren();
+                                default -> {
+                                    out.writeFieldName(field);
+                                    out.copyCurrentStructure(in);
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    out.writeStringField("created", now);
+                }
+
+                if (!pending.isEmpty()) {
+                    // Database had no "sprints" object yet
+                    out.writeObjectFieldStart("sprints");
+                    for (String sprintId : pending) {
+                        writeSprint(out, sprintId, replacements.get(sprintId), written, now);
+                        totalSprints++;
+                    }
+                    out.writeEndObject();
+                }
+
+                out.writeNumberField("totalSprints", totalSprints);
+                out.writeStringField("lastUpdated", now);
+                out.writeEndObject();
+            }
+
+            String checksum = SealedJsonFile.seal(tempFile);
+            synchronized (manifestLock) {
+                SealedJsonFile.replace(tempFile, dbFile);
+                publishManifest(nextManifest(previous, dbFile, written, totalSprints, now, checksum));
+            }
+        } catch (IOException | RuntimeException e) {
+            if (recorder != null) {
+                recorder.discard();
+            }
+            throw e;
+        }
+        if (recorder != null) {
+            try {
+                recorder.commit();
+            } catch (IOException e) {
+                // The write itself succeeded; only time travel to the previous generation is lost
+                log.warn("Failed to keep sprint database generation {}: {}", previous.generation(), e.getMessage());
+            }
+        }
+        log.info("Master database saved to {} ({} sprint(s) written, {} unchanged)", DATABASE_FILE,
+                written.size(), outcomes.size() - written.size());
+        return outcomes;
+    }
+
+    /**
+     * Compare the sprints about to be written with the stored ones, issue by issue, by content hash.
+     * Only the stored sprints being replaced are read.
+     */
+    private Map<String, SprintWrite> compareWithStored(DatabaseManifest previous, Path dbFile,
+                                                       Map<String, IssueStream> replacements) throws IOException {
+        Set<String> stored = new HashSet<>();
+        for (DatabaseManifest.SprintEntry sprint : previous.sprints()) {
+            if (replacements.containsKey(sprint.sprintId())) {
+                stored.add(sprint.sprintId());
+            }
+        }
+        Map<String, Map<String, String>> storedHashes = new HashMap<>();
+        if (!stored.isEmpty()) {
+            try (JsonParser in = objectMapper.getFactory().createParser(dbFile.toFile())) {
+                forEachSprint(in, stored, (sprintId, issue) -> storedHashes
+                        .computeIfAbsent(sprintId, k -> new HashMap<>())
+                        .put(issue.path("key").asText(), contentHash(issue)));
+            }
+        }
+
+        Map<String, SprintWrite> outcomes = new LinkedHashMap<>();
+        for (Map.Entry<String, IssueStream> replacement : replacements.entrySet()) {
+            String sprintId = replacement.getKey();
+            Map<String, String> hashes = stored.contains(sprintId)
+                    ? storedHashes.getOrDefault(sprintId, Map.of()) : null;
+            Set<String> seen = new HashSet<>();
+            int[] counts = new int[2];
+            replacement.getValue().forEachIssue(issue -> {
+                String key = issue.path("key").asText(null);
+                if (hashes != null && key != null && IssueContentHash.of(issue).equals(hashes.get(key))) {
+                    counts[1]++;
+                } else {
+                    counts[0]++;
+                }
+                seen.add(key);
+            });
+            int removed = 0;
+            if (hashes != null) {
+                for (String key : hashes.keySet()) {
+                    if (!seen.contains(key)) {
+                        removed++;
+                    }
+                }
+            }
+            boolean changed = hashes == null || counts[0] > 0 || removed > 0;
+            outcomes.put(sprintId, new SprintWrite(counts[0] + counts[1], counts[0], counts[1], removed, changed));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Stored content hash of an issue, computed for issues written before hashes were stored.
+     */
+    private static String contentHash(JsonNode issue) {
+        JsonNode stored = issue.get(IssueContentHash.FIELD);
+        return stored != null && stored.isTextual() ? stored.textValue() : IssueContentHash.of(issue);
+    }
+
+    /**
+     * Manifest of the database just written: the previous manifest with the written sprints
+     * replaced in place and new sprints appended, as in the file.
+     */
+    private DatabaseManifest nextManifest(DatabaseManifest previous, Path dbFile, Map<String, Integer> written,
+                                          int totalSprints, String now, String checksum) throws IOException {
+        Map<String, DatabaseManifest.SprintEntry> sprints = new LinkedHashMap<>();
+        for (DatabaseManifest.SprintEntry sprint : previous.sprints()) {
+            sprints.put(sprint.sprintId(), sprint);
+        }
+        written.forEach((sprintId, issueCount) ->
+                sprints.put(sprintId, new DatabaseManifest.SprintEntry(sprintId, issueCount, now)));
+        if (sprints.size() != totalSprints) {
+            // The file changed underneath the previous manifest; describe what was actually written
+            return scanManifest(dbFile, previous.generation() + 1);
+        }
+        int totalIssues = sprints.values().stream().mapToInt(DatabaseManifest.SprintEntry::issueCount).sum();
+        String created = previous.created() != null ? previous.created() : now;
+        FileStamp stamp = FileStamp.of(dbFile);
+        return new DatabaseManifest(previous.generation() + 1, created, now, totalIssues,
+                stamp.size(), stamp.lastModified(), checksum, new ArrayList<>(sprints.values()));
+    }
+
+    /**
+     * Make a manifest current and persist it next to the database, so a restart does not need
+     * to rescan the database.
+     */
+    private void publishManifest(DatabaseManifest next) {
+        manifest.set(next);
+        Path manifestFile = Path.of(MANIFEST_FILE);
+        Path tempFile = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(manifestFile.toAbsolutePath().getParent());
+            objectMapper.writeValue(tempFile.toFile(), next);
+            Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Only costs a rescan on the next start
+            log.warn("Failed to save sprint database manifest: {}", e.getMessage());
+        }
+    }
+
+    private DatabaseManifest readStoredManifest() {
+        Path manifestFile = Path.of(MANIFEST_FILE);
+        if (!Files.exists(manifestFile)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(manifestFile.toFile(), DatabaseManifest.class);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable sprint database manifest: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Build a manifest by streaming through the database file without materializing any issues,
+     * after checking the file's seal.
+     *
+     * @throws IOException if the file is torn or otherwise does not match its checksum
+     */
+    private DatabaseManifest scanManifest(Path dbFile, long generation) throws IOException {
+        while (true) {
+            FileStamp stamp = FileStamp.of(dbFile);
+            DatabaseManifest scanned = scanManifest(dbFile, generation, stamp);
+            // Another process may have replaced the file while it was being read
+            if (FileStamp.of(dbFile).equals(stamp)) {
+                return scanned;
+            }
+        }
+    }
+
+    private DatabaseManifest scanManifest(Path dbFile, long generation, FileStamp stamp) throws IOException {
+        List<DatabaseManifest.SprintEntry> sprints = new ArrayList<>();
+        if (stamp.size() < 0) {
+            return new DatabaseManifest(generation, null, null, 0, stamp.size(), stamp.lastModified(), null, sprints);
+        }
+
+        String checksum = SealedJsonFile.verify(dbFile);
+        String created = null;
+        String lastUpdated = null;
+        try (JsonParser in = objectMapper.getFactory().createParser(dbFile.toFile())) {
+            if (in.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Invalid sprint database: expected object at root");
+            }
+            while (in.nextToken() == JsonToken.FIELD_NAME) {
+                String field = in.currentName();
+                in.nextToken();
+                switch (field) {
+                    case "created" -> created = in.getValueAsString();
+                    case "lastUpdated" -> lastUpdated = in.getValueAsString();
+                    case "sprints" -> {
+                        if (in.currentToken() != JsonToken.START_OBJECT) {
+                            in.skipChildren();
+                            continue;
+                        }
+                        while (in.nextToken() == JsonToken.FIELD_NAME) {
+                            String sprintId = in.currentName();
+                            in.nextToken();
+                            sprints.add(readSprintEntry(in, sprintId));
+                        }
+                    }
+                    default -> in.skipChildren();
+                }
+            }
+        }
+        int totalIssues = sprints.stream().mapToInt(DatabaseManifest.SprintEntry::issueCount).sum();
+        return new DatabaseManifest(generation, created, lastUpdated, totalIssues,
+                stamp.size(), stamp.lastModified(), checksum, sprints);
+    }
+
+    private record RejectedFile(FileStamp stamp, String reason) {}
+
+    /**
+     * Size and modification time (epoch millis) of the database file, both -1 if it does not exist.
+     */
+    private record FileStamp(long size, long lastModified) {
+
+        static FileStamp of(Path file) throws IOException {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new FileStamp(attributes.size(), attributes.lastModifiedTime().toMillis());
+            } catch (NoSuchFileException e) {
+                return new FileStamp(-1, -1);
+            }
+        }
+
+        boolean matches(DatabaseManifest manifest) {
+            return manifest.describes(size, lastModified);
+        }
+    }
+
+    /**
+     * Copy the "sprints" object, substituting replaced sprints in place and appending new ones.
+     *
+     * @param recorder receives the replaced sprints as they were, or null if history is not kept
+     * @return number of sprints in the rewritten object
+     */
+    private int copySprints(JsonParser in, JsonGenerator out, Map<String, IssueStream> replacements,
+                            Set<String> pending, Map<String, Integer> written, String now,
+                            GenerationHistory.Recorder recorder) throws IOException {
+        int count = 0;
+        out.writeFieldName("sprints");
+        out.writeStartObject();
+        if (in.currentToken() == JsonToken.START_OBJECT) {
+            while (in.nextToken() == JsonToken.FIELD_NAME) {
+                String sprintId = in.currentName();
+                in.nextToken();
+                if (pending.remove(sprintId)) {
+                    if (recorder != null) {
+                        recorder.recordSprint(sprintId, in);
+                    } else {
+                        in.skipChildren();
+                    }
+                    writeSprint(out, sprintId, replacements.get(sprintId), written, now);
+                } else {
+                    out.writeFieldName(sprintId);
+                    out.copyCurrentStructure(in);
+                }
+                count++;
+            }
+        } else {
+            in.skipChildren();
+        }
+        for (String sprintId : pending) {
+            writeSprint(out, sprintId, replacements.get(sprintId), written, now);
+            count++;
+        }
+        pending.clear();
+        out.writeEndObject();
+        return count;
+    }
+
+    private void writeSprint(JsonGenerator out, String sprintId, IssueStream issues,
+                             Map<String, Integer> written, String now) throws IOException {
+        out.writeObjectFieldStart(sprintId);
+        out.writeStringField("sprintId", sprintId);
+        out.writeStringField("fetchedAt", now);
+        out.writeArrayFieldStart("issues");
+        int[] issueCount = new int[1];
+        issues.forEachIssue(issue -> {
+            if (issue instanceof ObjectNode object) {
+                object.put(IssueContentHash.FIELD, IssueContentHash.of(issue));
+            }
+            out.writeTree(issue);
+            issueCount[0]++;
+        });
+        out.writeEndArray();
+        out.writeNumberField("totalIssues", issueCount[0]);
+        out.writeEndObject();
+        written.put(sprintId, issueCount[0]);
+    }
+
+    private void readSprintIssues(JsonParser in, String sprintId, IssueVisitor visitor) throws IOException {
+        if (in.currentToken() != JsonToken.START_OBJECT) {
+            in.skipChildren();
+            return;
+        }
+        while (in.nextToken() == JsonToken.FIELD_NAME) {
+            String field = in.currentName();
+            JsonToken value = in.nextToken();
+            if ("issues".equals(field) && value == JsonToken.START_ARRAY) {
+                while (in.nextToken() != JsonToken.END_ARRAY) {
+                    JsonNode issue = in.readValueAsTree();
+                    visitor.visitIssue(sprintId, issue);
+                }
+            } else {
+                in.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Read a sprint object's fetchedAt and issue count, preferring the stored totalIssues and
+     * falling back to counting the issues array.
+     */
+    private DatabaseManifest.SprintEntry readSprintEntry(JsonParser in, String sprintId) throws IOException {
+        if (in.currentToken() != JsonToken.START_OBJECT) {
+            in.skipChildren();
+            return new DatabaseManifest.SprintEntry(sprintId, 0, null);
+        }
+        Integer totalIssues = null;
+        String fetchedAt = null;
+        int counted = 0;
+        while (in.nextToken() == JsonToken.FIELD_NAME) {
+            String field = in.currentName();
+            JsonToken value = in.nextToken();
+            if ("totalIssues".equals(field) && value.isNumeric()) {
+                totalIssues = in.getIntValue();
+            } else if ("fetchedAt".equals(field) && value == JsonToken.VALUE_STRING) {
+                fetchedAt = in.getText();
+            } else if ("issues".equals(field) && value == JsonToken.START_ARRAY && totalIssues == null) {
+                while (in.nextToken() != JsonToken.END_ARRAY) {
+                    in.skipChildren();
+                    counted++;
+                }
+            } else {
+                in.skipChildren();
+            }
+        }
+        return new DatabaseManifest.SprintEntry(sprintId, totalIssues != null ? totalIssues : counted, fetchedAt);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.metrics.config;
+
+import com.example.metrics.service.datasource.JiraDataSourceManager;
+import com.example.metrics.service.storage.SprintDatabaseStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DatasetETagInterceptorTest {
+
+    private final JiraDataSourceManager dataSourceManager = mock(JiraDataSourceManager.class);
+    private final SprintDatabaseStore databaseStore = mock(SprintDatabaseStore.class);
+    private final SprintsController controller = new SprintsController();
+
+    @RestController
+    public static class SprintsController {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @DatasetETag
+        @GetMapping(value = "/api/sprints", produces = "text/plain")
+        public String sprints() {
+            calls.incrementAndGet();
+            return "Sprint 1";
+        }
+    }
+
+    @Test
+    void testMatchingIfNoneMatchSkipsHandler() throws Exception {
+        MockMvc mockMvc = mockMvc(false);
+        when(dataSourceManager.datasetVersion()).thenReturn(JiraDataSourceManager.databaseVersion(7));
+
+        String etag = etag(mockMvc, get("/api/sprints"));
+        assertThat(etag).startsWith("\"db:7-m");
+        assertThat(controller.calls).hasValue(1);
+
+        mockMvc.perform(get("/api/sprints").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+        assertThat(controller.calls).hasValue(1);
+    }
+
+    @Test
+    void testNewDatasetVersionRunsHandler() throws Exception {
+        MockMvc mockMvc = mockMvc(false);
+        when(dataSourceManager.datasetVersion()).thenReturn(JiraDataSourceManager.databaseVersion(7));
+        String etag = etag(mockMvc, get("/api/sprints"));
+
+        when(dataSourceManager.datasetVersion()).thenReturn(JiraDataSourceManager.databaseVersion(8));
+        String next = mockMvc.perform(get("/api/sprints").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(next).isNotEqualTo(etag);
+        assertThat(controller.calls).hasValue(2);
+    }
+
+    @Test
+    void testQueryParametersChangeETag() throws Exception {
+        MockMvc mockMvc = mockMvc(false);
+        when(dataSourceManager.datasetVersion()).thenReturn(JiraDataSourceManager.databaseVersion(7));
+
+        List<String> etags = List.of(
+            etag(mockMvc, get("/api/sprints")),
+            etag(mockMvc, get("/api/sprints").param("asOfGeneration", "5")),
+            etag(mockMvc, get("/api/sprints").param("asOfGeneration", "6")),
+            etag(mockMvc, get("/api/sprints").param("asOf", "2026-10-01T00:00:00Z")),
+            etag(mockMvc, get("/api/sprints").param("unused", "x")));
+        assertThat(etags).doesNotHaveDuplicates();
+
+        // Parameter order does not matter
+        assertThat(etag(mockMvc, get("/api/sprints?asOf=2026-10-01&asOfGeneration=5")))
+            .isEqualTo(etag(mockMvc, get("/api/sprints?asOfGeneration=5&asOf=2026-10-01")));
+    }
+
+    @Test
+    void testGzipVariantIsNotModified() throws Exception {
+        MockMvc mockMvc = mockMvc(true);
+        when(dataSourceManager.datasetVersion()).thenReturn(JiraDataSourceManager.databaseVersion(7));
+        String etag = etag(mockMvc, get("/api/sprints"));
+
+        mockMvc.perform(get("/api/sprints")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                .header(HttpHeaders.IF_NONE_MATCH, DatasetETagInterceptor.gzipVariant(etag)))
+            .andExpect(status().isNotModified())
+            .andExpect(header().stringValues(HttpHeaders.ETAG, DatasetETagInterceptor.gzipVariant(etag)))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+        // A handler that writes no gzip keeps the plain tag
+        assertThat(etag(mockMvc, get("/api/sprints").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))).isEqualTo(etag);
+        // Without Accept-Encoding the compressed representation does not apply
+        mockMvc.perform(get("/api/sprints")
+                .header(HttpHeaders.IF_NONE_MATCH, DatasetETagInterceptor.gzipVariant(etag)))
+            .andExpect(status().isOk());
+        assertThat(controller.calls).hasValue(3);
+    }
+
+    private MockMvc mockMvc(boolean gzip) {
+        ApiResponseProperties properties = new ApiResponseProperties("no-cache", gzip, DataSize.ofKilobytes(2));
+        return MockMvcBuilders.standaloneSetup(controller)
+            .addInterceptors(new DatasetETagInterceptor(dataSourceManager, databaseStore, properties))
+            .build();
+    }
+
+    private static String etag(MockMvc mockMvc, MockHttpServletRequestBuilder request) throws Exception {
+        String etag = mockMvc.perform(request)
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        return etag;
+    }
+}
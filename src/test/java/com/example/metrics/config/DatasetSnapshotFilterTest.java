@@ -0,0 +1,52 @@
+package com.example.metrics.config;
+
+import com.example.metrics.service.datasource.SprintDatabaseDataSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class DatasetSnapshotFilterTest {
+
+    private final SprintDatabaseDataSource sprintDatabaseSource = mock(SprintDatabaseDataSource.class);
+    private final DatasetSnapshotFilter filter = new DatasetSnapshotFilter(sprintDatabaseSource, new ObjectMapper());
+
+    @Test
+    void testAsOfGenerationPinsSnapshotEndpoints() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sprints");
+        request.setParameter("asOfGeneration", "5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        verify(sprintDatabaseSource).pin(5);
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(response.getHeader(DatasetSnapshotFilter.GENERATION_HEADER)).isEqualTo("5");
+    }
+
+    @Test
+    void testAdminEndpointsRejectTimeTravel() throws Exception {
+        for (String parameter : new String[] {"asOfGeneration", "asOf"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/status");
+            request.setParameter(parameter, "5");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+
+            filter.doFilter(request, response, chain);
+
+            assertThat(response.getStatus()).isEqualTo(400);
+            assertThat(response.getContentAsString()).contains("not supported by admin endpoints");
+            assertThat(response.getHeader(DatasetSnapshotFilter.GENERATION_HEADER)).isNull();
+            assertThat(chain.getRequest()).isNull();
+        }
+        verify(sprintDatabaseSource, never()).pin(anyLong());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.metrics.config;
+
+import com.example.metrics.controller.SprintAnalysisController;
+import com.example.metrics.model.dto.SprintSummary;
+import com.example.metrics.service.SprintAnalysisService;
+import com.example.metrics.service.datasource.JiraDataSourceManager;
+import com.example.metrics.service.storage.SprintDatabaseStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SerializedResponsesTest {
+
+    private final JiraDataSourceManager dataSourceManager = mock(JiraDataSourceManager.class);
+    private final SprintAnalysisService sprintAnalysisService = mock(SprintAnalysisService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(dataSourceManager.datasetVersion()).thenReturn(JiraDataSourceManager.databaseVersion(7));
+        // Large enough to be kept gzipped
+        when(sprintAnalysisService.getAllSprintSummaries()).thenReturn(summaries(50));
+
+        ApiResponseProperties properties = new ApiResponseProperties("no-cache", true, DataSize.ofKilobytes(2));
+        SerializedResponses serializedResponses = new SerializedResponses(
+            new ConcurrentMapCacheManager(CacheConfig.RESPONSES), dataSourceManager, new ObjectMapper(), properties);
+        mockMvc = MockMvcBuilders
+            .standaloneSetup(new SprintAnalysisController(sprintAnalysisService, serializedResponses))
+            .addInterceptors(new DatasetETagInterceptor(dataSourceManager, mock(SprintDatabaseStore.class), properties))
+            .build();
+    }
+
+    @Test
+    void testGzipResponseHasOneGzipETag() throws Exception {
+        MockHttpServletResponse gzipped = mockMvc.perform(get("/api/sprints")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn().getResponse();
+
+        List<String> etags = gzipped.getHeaders(HttpHeaders.ETAG);
+        assertThat(etags).hasSize(1);
+        assertThat(etags.get(0)).endsWith("-gzip\"");
+
+        mockMvc.perform(get("/api/sprints")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, etags.get(0)))
+            .andExpect(status().isNotModified())
+            .andExpect(header().stringValues(HttpHeaders.ETAG, etags.get(0)));
+        verify(sprintAnalysisService, times(1)).getAllSprintSummaries();
+
+        // Same JSON as the uncompressed representation, under its own tag
+        MockHttpServletResponse plain = mockMvc.perform(get("/api/sprints"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse();
+        assertThat(plain.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(plain.getHeaders(HttpHeaders.ETAG)).hasSize(1)
+            .allSatisfy(etag -> assertThat(DatasetETagInterceptor.gzipVariant(etag)).isEqualTo(etags.get(0)));
+        assertThat(gunzip(gzipped.getContentAsByteArray())).isEqualTo(plain.getContentAsByteArray());
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static List<SprintSummary> summaries(int count) {
+        List<SprintSummary> summaries = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            summaries.add(new SprintSummary("Sprint " + i, String.valueOf(i), "2026-01-01", "2026-01-14", 14,
+                20, 3, 10, 5, 2, 0, 15, 75.0, 8, 80.0, 9, 1, 0.11, 12, 2, 16.7,
+                9, 90.0, 8, 80.0, 4));
+        }
+        return summaries;
+    }
+}
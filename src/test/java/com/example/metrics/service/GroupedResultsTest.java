@@ -0,0 +1,105 @@
+package com.example.metrics.service;
+
+import com.example.metrics.model.jira.Fields;
+import com.example.metrics.model.jira.Issue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GroupedResultsTest {
+
+    private final List<String> computed = new ArrayList<>();
+    private GroupedResults<List<String>> results;
+
+    @BeforeEach
+    void setUp() {
+        // Each issue belongs to the group named by its summary; a result lists the group's issue keys
+        results = new GroupedResults<>("test",
+            issue -> List.of(issue.getFields().getSummary()),
+            (group, issues) -> {
+                computed.add(group);
+                return issues.stream().map(Issue::getKey).toList();
+            });
+    }
+
+    @Test
+    void testIssueMovingBetweenGroupsInvalidatesBoth() {
+        List<Issue> untouchedPartition = List.of(issue("CMS-4", "C"));
+        Map<String, List<Issue>> before = partitions(
+            List.of(issue("CMS-1", "A"), issue("CMS-2", "A"), issue("CMS-3", "B")),
+            untouchedPartition);
+        Map<String, List<String>> first = results.all(before, Set.of());
+        assertThat(first).containsOnlyKeys("A", "B", "C");
+        assertThat(computed).containsExactlyInAnyOrder("A", "B", "C");
+
+        // CMS-1 moves from A to B; the second partition is the very same list
+        computed.clear();
+        Map<String, List<Issue>> after = partitions(
+            List.of(issue("CMS-1", "B"), issue("CMS-2", "A"), issue("CMS-3", "B")),
+            untouchedPartition);
+        Map<String, List<String>> second = results.all(after, Set.of());
+
+        assertThat(computed).containsExactlyInAnyOrder("A", "B");
+        assertThat(second.get("A")).containsExactly("CMS-2");
+        assertThat(second.get("B")).containsExactly("CMS-1", "CMS-3");
+        assertThat(second.get("C")).isSameAs(first.get("C"));
+    }
+
+    @Test
+    void testUnchangedPartitionsKeepEveryResult() {
+        List<Issue> sprint1 = List.of(issue("CMS-1", "A"), issue("CMS-2", "B"));
+        List<Issue> sprint2 = List.of(issue("CMS-3", "B"));
+        List<String> groupB = results.get(partitions(sprint1, sprint2), "B");
+        computed.clear();
+
+        // A new map holding the same lists, as the next generation does when no sprint changed
+        assertThat(results.get(partitions(sprint1, sprint2), "B")).isSameAs(groupB);
+        assertThat(results.all(partitions(sprint1, sprint2), Set.of("B"))).containsOnlyKeys("A");
+        assertThat(computed).containsExactly("A");
+        assertThat(results.members(partitions(sprint1, sprint2), "B")).extracting(Issue::getKey)
+            .containsExactly("CMS-2", "CMS-3");
+    }
+
+    @Test
+    void testRemovedPartitionInvalidatesItsGroups() {
+        List<Issue> sprint1 = List.of(issue("CMS-1", "A"), issue("CMS-2", "B"));
+        List<Issue> sprint2 = List.of(issue("CMS-3", "B"), issue("CMS-4", "C"));
+        Map<String, List<String>> first = results.all(partitions(sprint1, sprint2), Set.of());
+        computed.clear();
+
+        Map<String, List<Issue>> withoutSprint2 = new LinkedHashMap<>();
+        withoutSprint2.put("1", sprint1);
+        Map<String, List<String>> second = results.all(withoutSprint2, Set.of());
+
+        assertThat(second).containsOnlyKeys("A", "B");
+        assertThat(second.get("A")).isSameAs(first.get("A"));
+        assertThat(second.get("B")).containsExactly("CMS-2");
+        assertThat(results.get(withoutSprint2, "C")).isNull();
+        assertThat(computed).containsExactly("B");
+    }
+
+    @SafeVarargs
+    private static Map<String, List<Issue>> partitions(List<Issue>... partitions) {
+        Map<String, List<Issue>> byId = new LinkedHashMap<>();
+        for (int i = 0; i < partitions.length; i++) {
+            byId.put(String.valueOf(i + 1), partitions[i]);
+        }
+        return byId;
+    }
+
+    private static Issue issue(String key, String group) {
+        Fields fields = new Fields();
+        fields.setSummary(group);
+        Issue issue = new Issue();
+        issue.setKey(key);
+        issue.setFields(fields);
+        return issue;
+    }
+}
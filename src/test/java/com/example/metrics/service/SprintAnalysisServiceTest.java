@@ -0,0 +1,88 @@
+package com.example.metrics.service;
+
+import com.example.metrics.model.dto.SprintSummary;
+import com.example.metrics.model.jira.Issue;
+import com.example.metrics.service.datasource.JiraDataSourceManager;
+import com.example.metrics.service.storage.ClosedSprintSummaryStore;
+import com.example.metrics.service.storage.ClosedSprintSummaryStore.FrozenSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SprintAnalysisServiceTest {
+
+    private static final String SPRINT_1 = "{\"id\":1,\"name\":\"Sprint 1\",\"state\":\"closed\","
+        + "\"startDate\":\"2026-09-01T00:00:00Z\",\"endDate\":\"2026-09-14T00:00:00Z\"}";
+    private static final String SPRINT_2 = "{\"id\":2,\"name\":\"Sprint 2\",\"state\":\"active\","
+        + "\"startDate\":\"2026-09-15T00:00:00Z\",\"endDate\":\"2026-09-28T00:00:00Z\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JiraDataSourceManager dataSourceManager;
+    private ClosedSprintSummaryStore closedSprintSummaries;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dataSourceManager = mock(JiraDataSourceManager.class);
+        closedSprintSummaries = mock(ClosedSprintSummaryStore.class);
+
+        // CMS-3 was carried over from Sprint 1 to Sprint 2, so both sprints hold a copy of it
+        Map<String, List<Issue>> partitions = new LinkedHashMap<>();
+        partitions.put("1", List.of(
+            issue("CMS-1", "Done", SPRINT_1),
+            issue("CMS-3", "In Progress", SPRINT_1, SPRINT_2)));
+        partitions.put("2", List.of(
+            issue("CMS-2", "Done", SPRINT_2),
+            issue("CMS-3", "In Progress", SPRINT_1, SPRINT_2)));
+        when(dataSourceManager.fetchIssuePartitions()).thenReturn(partitions);
+        when(dataSourceManager.sprintFetchTimes()).thenReturn(Map.of(
+            "1", "2026-09-14T12:00:00Z",
+            "2", "2026-10-01T12:00:00Z"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFreezingClosedSprintKeepsOpenSprintSummary() throws IOException {
+        when(closedSprintSummaries.getSummaries()).thenReturn(Map.of());
+        List<SprintSummary> beforeFreezing = newService().getAllSprintSummaries();
+
+        ArgumentCaptor<Collection<FrozenSummary>> frozen = ArgumentCaptor.forClass(Collection.class);
+        verify(closedSprintSummaries).freeze(frozen.capture());
+        assertThat(frozen.getValue()).extracting(f -> f.summary().sprintName()).containsExactly("Sprint 1");
+
+        // A fresh service, as after a restart, serves Sprint 1 from the frozen summaries
+        when(closedSprintSummaries.getSummaries()).thenReturn(frozen.getValue().stream()
+            .collect(Collectors.toMap(f -> f.summary().sprintId(), Function.identity())));
+        SprintAnalysisService service = newService();
+        List<SprintSummary> afterFreezing = service.getAllSprintSummaries();
+
+        assertThat(afterFreezing).isEqualTo(beforeFreezing);
+        assertThat(afterFreezing).extracting(SprintSummary::sprintName).containsExactly("Sprint 2", "Sprint 1");
+        assertThat(afterFreezing.get(0).totalIssues()).isEqualTo(3);
+        assertThat(service.getSprintSummary("Sprint 2")).isEqualTo(afterFreezing.get(0));
+    }
+
+    private SprintAnalysisService newService() {
+        return new SprintAnalysisService(dataSourceManager, objectMapper, closedSprintSummaries);
+    }
+
+    private Issue issue(String key, String status, String... sprints) throws IOException {
+        return objectMapper.readValue("{\"key\":\"" + key + "\",\"fields\":{"
+            + "\"status\":{\"name\":\"" + status + "\"},"
+            + "\"issuetype\":{\"name\":\"Story\"},"
+            + "\"customfield_10020\":[" + String.join(",", sprints) + "]}}", Issue.class);
+    }
+}
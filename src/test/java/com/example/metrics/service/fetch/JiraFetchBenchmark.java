@@ -0,0 +1,112 @@
+package com.example.metrics.service.fetch;
+
+import com.example.metrics.config.DatasetHistoryProperties;
+import com.example.metrics.config.JiraProperties;
+import com.example.metrics.service.JiraFetchService;
+import com.example.metrics.service.JiraFetchService.JiraCredentials;
+import com.example.metrics.service.datasource.DatasetWarmer;
+import com.example.metrics.service.datasource.SprintDatabaseDataSource;
+import com.example.metrics.service.storage.GenerationHistory;
+import com.example.metrics.service.storage.SprintDatabaseStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of the sprint fetch pipeline against the local Jira stand-in.
+ * Disabled in the regular test run; use the jiraFetchBenchmark Gradle task, which runs it in a
+ * scratch working directory and passes -Pbenchmark.* settings through.
+ */
+@EnabledIfSystemProperty(named = "benchmark.enabled", matches = "true")
+class JiraFetchBenchmark {
+
+    @Test
+    void testFetchNewSprintsThroughput() throws Exception {
+        // The fetch services write tools/ relative to the working directory; never run in the project root
+        assertThat(Path.of("build.gradle.kts")).doesNotExist();
+        deleteRecursively(Path.of("tools"));
+
+        int sprintCount = Integer.getInteger("benchmark.sprints", 10);
+        int issuesPerSprint = Integer.getInteger("benchmark.issuesPerSprint", 300);
+        int carryOverPercent = Integer.getInteger("benchmark.carryOverPercent", 30);
+        int historiesPerIssue = Integer.getInteger("benchmark.historiesPerIssue", 20);
+        JiraStubServer.Options options = new JiraStubServer.Options(
+                Integer.getInteger("benchmark.pageSize", 100),
+                Duration.ofMillis(Long.getLong("benchmark.latencyMs", 20)),
+                Double.parseDouble(System.getProperty("benchmark.rateLimitProbability", "0.01")),
+                Integer.getInteger("benchmark.maxEmbeddedHistories", 100),
+                42L);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JiraStubServer.Fixtures fixtures = JiraStubServer.Fixtures.synthetic(
+                mapper, sprintCount, issuesPerSprint, carryOverPercent, historiesPerIssue);
+
+        try (JiraStubServer stub = JiraStubServer.start(mapper, fixtures, options)) {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            JiraProperties properties = new JiraProperties(stub.getBaseUrl(), 1);
+            JiraHttpClient httpClient = new JiraHttpClient(mapper, registry);
+            ChangelogCompleter changelogCompleter = new ChangelogCompleter(httpClient, mapper, properties);
+            DatasetHistoryProperties historyProperties = new DatasetHistoryProperties(10, 4);
+            GenerationHistory history = new GenerationHistory(mapper, historyProperties);
+            SprintDatabaseStore databaseStore = new SprintDatabaseStore(mapper, history);
+            JiraFetchService fetchService = new JiraFetchService(
+                    mapper,
+                    new SprintDatabaseDataSource(mapper, databaseStore, history, historyProperties,
+                            new StaticListableBeanFactory().getBeanProvider(DatasetWarmer.class)),
+                    new FetchCheckpointStore(mapper),
+                    databaseStore,
+                    httpClient,
+                    changelogCompleter,
+                    new BoardSprintDiscovery(mapper, httpClient, properties),
+                    properties);
+
+            long start = System.nanoTime();
+            Map<String, Object> result;
+            try {
+                result = fetchService.fetchNewSprints(new JiraCredentials("xsrf", "account", "tenant"), false);
+            } finally {
+                changelogCompleter.shutdown();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> fetched = (List<Map<String, Object>>) result.get("fetched");
+            int issuesStaged = fetched.stream().mapToInt(info -> (Integer) info.get("issueCount")).sum();
+            double wireBytes = registry.find("jira.http.response.bytes").tag("encoding", "wire")
+                    .summary().totalAmount();
+
+            System.out.printf("Fetched %d sprint(s), %d issues (%d unique) in %.2f s: %.1f issues/sec%n",
+                    fetched.size(), issuesStaged, fixtures.issues().size(), seconds, issuesStaged / seconds);
+            System.out.printf("%d request(s), %d rate limited, %.1f MB on the wire, issue cache %s%n",
+                    stub.getRequestCount(), stub.getRateLimitedCount(), wireBytes / (1024 * 1024),
+                    result.get("issueCache"));
+
+            assertThat(fetched).hasSize(sprintCount);
+            assertThat(issuesStaged).isEqualTo(sprintCount * issuesPerSprint);
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
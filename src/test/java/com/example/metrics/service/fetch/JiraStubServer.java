@@ -0,0 +1,452 @@
+package com.example.metrics.service.fetch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Embeddable stand-in for the Jira REST endpoints used by the fetch pipeline.
+ * Serves enhanced search with nextPageToken pagination, approximate count, per-issue changelogs,
+ * the board sprint listing and sprint details from in-memory fixtures. Latency, page size and
+ * injected 429 responses are configurable, so sync throughput can be measured without a live site.
+ */
+public final class JiraStubServer implements Closeable {
+
+    private static final Pattern SPRINT_CLAUSE = Pattern.compile("Sprint = (\\d+)");
+    private static final Pattern KEY_IN_CLAUSE = Pattern.compile("key in \\(([^)]*)\\)");
+    private static final Pattern KEY_LOWER_BOUND = Pattern.compile("key >= (\\S+?)(?=\\)|\\s|$)");
+    private static final Pattern KEY_UPPER_BOUND = Pattern.compile("key < (\\S+?)(?=\\)|\\s|$)");
+    private static final Pattern ORDER_BY = Pattern.compile("\\s+ORDER BY key (ASC|DESC)\\s*$");
+    private static final Comparator<String> KEY_ORDER = Comparator
+            .comparing((String key) -> key.substring(0, key.lastIndexOf('-')))
+            .thenComparingLong(key -> Long.parseLong(key.substring(key.lastIndexOf('-') + 1)));
+    private static final int MAX_BOARD_PAGE = 50;
+
+    /**
+     * Server behaviour.
+     *
+     * @param pageSize             largest page returned, whatever maxResults asks for
+     * @param latency              delay added to every response
+     * @param rateLimitProbability chance of answering a request with 429 instead
+     * @param maxEmbeddedHistories histories embedded per issue by search; more are truncated
+     * @param seed                 seed for 429 injection, so runs are repeatable
+     */
+    public record Options(int pageSize, Duration latency, double rateLimitProbability,
+                          int maxEmbeddedHistories, long seed) {
+
+        public static Options defaults() {
+            return new Options(100, Duration.ZERO, 0.0, 100, 42L);
+        }
+    }
+
+    /**
+     * Issues (each carrying its full changelog) and sprints served by the stand-in.
+     */
+    public record Fixtures(List<ObjectNode> issues, List<ObjectNode> sprints) {
+
+        /**
+         * Synthetic sprints on a single project. The last sprint is active, the rest closed.
+         *
+         * @param carryOverPercent share of each sprint's issues carried over from the previous sprint
+         */
+        public static Fixtures synthetic(ObjectMapper mapper, int sprintCount, int issuesPerSprint,
+                                         int carryOverPercent, int historiesPerIssue) {
+            List<ObjectNode> issues = new ArrayList<>();
+            List<ObjectNode> sprints = new ArrayList<>();
+            List<ObjectNode> previous = List.of();
+            int nextNumber = 1;
+            for (int s = 0; s < sprintCount; s++) {
+                ObjectNode sprint = mapper.createObjectNode();
+                sprint.put("id", 1000 + s);
+                sprint.put("name", "Bench Sprint " + (s + 1));
+                sprint.put("state", s == sprintCount - 1 ? "active" : "closed");
+                sprints.add(sprint);
+
+                List<ObjectNode> current = new ArrayList<>();
+                int carried = Math.min(previous.size(), issuesPerSprint * carryOverPercent / 100);
+                for (ObjectNode issue : previous.subList(0, carried)) {
+                    ((ArrayNode) issue.path("fields").path("customfield_10020")).add(sprint.deepCopy());
+                    current.add(issue);
+                }
+                while (current.size() < issuesPerSprint) {
+                    ObjectNode issue = syntheticIssue(mapper, nextNumber++, historiesPerIssue);
+                    ((ArrayNode) issue.path("fields").path("customfield_10020")).add(sprint.deepCopy());
+                    issues.add(issue);
+                    current.add(issue);
+                }
+                previous = current;
+            }
+            return new Fixtures(issues, sprints);
+        }
+
+        /**
+         * Issues and sprint IDs recorded in a sprint master database file.
+         */
+        public static Fixtures fromSprintDatabase(ObjectMapper mapper, Path databaseFile) throws IOException {
+            Map<String, ObjectNode> issues = new LinkedHashMap<>();
+            List<ObjectNode> sprints = new ArrayList<>();
+            JsonNode database = mapper.readTree(databaseFile.toFile());
+            database.path("sprints").fields().forEachRemaining(entry -> {
+                ObjectNode sprint = mapper.createObjectNode();
+                sprint.put("id", Long.parseLong(entry.getKey()));
+                sprint.put("name", "Sprint " + entry.getKey());
+                sprint.put("state", "closed");
+                sprints.add(sprint);
+                for (JsonNode issue : entry.getValue().path("issues")) {
+                    issues.putIfAbsent(issue.path("key").asText(), (ObjectNode) issue);
+                }
+            });
+            return new Fixtures(new ArrayList<>(issues.values()), sprints);
+        }
+
+        private static ObjectNode syntheticIssue(ObjectMapper mapper, int number, int historiesPerIssue) {
+            ObjectNode issue = mapper.createObjectNode();
+            issue.put("id", String.valueOf(100000 + number));
+            issue.put("key", "BENCH-" + number);
+            ObjectNode fields = issue.putObject("fields");
+            fields.put("summary", "Synthetic issue " + number);
+            fields.putObject("status").put("name", "Done");
+            fields.putObject("issuetype").put("name", number % 5 == 0 ? "Bug" : "Story");
+            fields.putObject("priority").put("name", "Medium");
+            fields.putObject("assignee").put("displayName", "Developer " + (number % 7));
+            fields.put("created", "2024-01-01T09:00:00.000+0000");
+            fields.put("updated", "2024-02-01T09:00:00.000+0000");
+            fields.putArray("customfield_10020");
+
+            ArrayNode histories = mapper.createArrayNode();
+            LocalDateTime created = LocalDateTime.of(2024, 1, 1, 9, 0);
+            for (int h = 0; h < historiesPerIssue; h++) {
+                ObjectNode history = histories.addObject();
+                history.put("id", String.valueOf(number * 1000L + h));
+                history.put("created", created.plusMinutes(h) + ":00.000+0000");
+                ObjectNode item = history.putArray("items").addObject();
+                item.put("field", "status");
+                item.put("fromString", h % 2 == 0 ? "To Do" : "In Progress");
+                item.put("toString", h % 2 == 0 ? "In Progress" : "To Do");
+            }
+            ObjectNode changelog = issue.putObject("changelog");
+            changelog.put("startAt", 0);
+            changelog.put("maxResults", histories.size());
+            changelog.put("total", histories.size());
+            changelog.set("histories", histories);
+            return issue;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Options options;
+    private final List<ObjectNode> issuesByKey;
+    private final Map<String, ObjectNode> issueIndex = new HashMap<>();
+    private final Map<Long, ObjectNode> sprints = new TreeMap<>();
+    private final Map<String, Set<Long>> sprintMembership = new HashMap<>();
+    private final Random random;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    private JiraStubServer(ObjectMapper objectMapper, Fixtures fixtures, Options options) throws IOException {
+        this.objectMapper = objectMapper;
+        this.options = options;
+        this.random = new Random(options.seed());
+        this.issuesByKey = new ArrayList<>(fixtures.issues());
+        this.issuesByKey.sort(Comparator.comparing(issue -> issue.path("key").asText(), KEY_ORDER));
+        for (ObjectNode issue : issuesByKey) {
+            String key = issue.path("key").asText();
+            issueIndex.put(key, issue);
+            Set<Long> memberOf = new HashSet<>();
+            issue.path("fields").path("customfield_10020").forEach(sprint -> memberOf.add(sprint.path("id").asLong()));
+            sprintMembership.put(key, memberOf);
+        }
+        fixtures.sprints().forEach(sprint -> sprints.put(sprint.path("id").asLong(), sprint));
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Start a stand-in on a free local port.
+     */
+    public static JiraStubServer start(ObjectMapper objectMapper, Fixtures fixtures, Options options)
+            throws IOException {
+        JiraStubServer stub = new JiraStubServer(objectMapper, fixtures, options);
+        stub.server.start();
+        return stub;
+    }
+
+    /**
+     * Base URL to configure as jira.base-url.
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            sleep(options.latency());
+            if (injectRateLimit()) {
+                rateLimited.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                exchange.sendResponseHeaders(429, -1);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            JsonNode body;
+            if (path.equals("/rest/api/3/search/jql")) {
+                body = search(query);
+            } else if (path.equals("/rest/api/3/search/approximate-count")) {
+                String jql = objectMapper.readTree(exchange.getRequestBody()).path("jql").asText();
+                body = objectMapper.createObjectNode().put("count", select(jql).size());
+            } else if (path.startsWith("/rest/api/3/issue/") && path.endsWith("/changelog")) {
+                body = changelog(path.substring("/rest/api/3/issue/".length(), path.length() - "/changelog".length()),
+                        query);
+            } else if (path.startsWith("/rest/agile/1.0/board/") && path.endsWith("/sprint")) {
+                body = boardSprints(query);
+            } else if (path.startsWith("/rest/agile/1.0/sprint/")) {
+                body = sprints.get(Long.parseLong(path.substring("/rest/agile/1.0/sprint/".length())));
+            } else {
+                body = null;
+            }
+
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            respond(exchange, body);
+        } catch (RuntimeException e) {
+            exchange.sendResponseHeaders(400, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private JsonNode search(Map<String, String> query) {
+        List<ObjectNode> matches = select(query.getOrDefault("jql", ""));
+        int offset = query.containsKey("nextPageToken") ? decodeToken(query.get("nextPageToken")) : 0;
+        int size = Math.min(Integer.parseInt(query.getOrDefault("maxResults", "50")), options.pageSize());
+        int end = Math.min(offset + size, matches.size());
+        Set<String> fields = new HashSet<>(Arrays.asList(query.getOrDefault("fields", "*all").split(",")));
+        boolean expandChangelog = query.getOrDefault("expand", "").contains("changelog");
+
+        ObjectNode page = objectMapper.createObjectNode();
+        ArrayNode issues = page.putArray("issues");
+        for (ObjectNode issue : matches.subList(offset, end)) {
+            issues.add(render(issue, fields, expandChangelog));
+        }
+        page.put("isLast", end >= matches.size());
+        if (end < matches.size()) {
+            page.put("nextPageToken", encodeToken(end));
+        }
+        return page;
+    }
+
+    private JsonNode changelog(String key, Map<String, String> query) {
+        ObjectNode issue = issueIndex.get(URLDecoder.decode(key, StandardCharsets.UTF_8));
+        if (issue == null) {
+            return null;
+        }
+        JsonNode histories = issue.path("changelog").path("histories");
+        int startAt = Integer.parseInt(query.getOrDefault("startAt", "0"));
+        int maxResults = Math.min(Integer.parseInt(query.getOrDefault("maxResults", "100")), options.pageSize());
+        int end = Math.min(startAt + maxResults, histories.size());
+
+        ObjectNode page = objectMapper.createObjectNode();
+        page.put("startAt", startAt);
+        page.put("maxResults", maxResults);
+        page.put("total", histories.size());
+        page.put("isLast", end >= histories.size());
+        ArrayNode values = page.putArray("values");
+        for (int i = startAt; i < end; i++) {
+            values.add(histories.get(i));
+        }
+        return page;
+    }
+
+    private JsonNode boardSprints(Map<String, String> query) {
+        List<ObjectNode> all = new ArrayList<>(sprints.values());
+        int startAt = Integer.parseInt(query.getOrDefault("startAt", "0"));
+        int maxResults = Math.min(Integer.parseInt(query.getOrDefault("maxResults", "50")), MAX_BOARD_PAGE);
+        int end = Math.min(startAt + maxResults, all.size());
+
+        ObjectNode page = objectMapper.createObjectNode();
+        page.put("startAt", startAt);
+        page.put("maxResults", maxResults);
+        page.put("isLast", end >= all.size());
+        ArrayNode values = page.putArray("values");
+        for (int i = Math.min(startAt, end); i < end; i++) {
+            values.add(all.get(i));
+        }
+        return page;
+    }
+
+    /**
+     * Evaluate the subset of JQL the fetch pipeline emits: sprint membership, key lists,
+     * key ranges and key ordering. Other clauses (project, team) match every issue.
+     */
+    private List<ObjectNode> select(String jql) {
+        Matcher order = ORDER_BY.matcher(jql);
+        boolean descending = order.find() && "DESC".equals(order.group(1));
+        String where = order.replaceAll("");
+
+        Matcher sprint = SPRINT_CLAUSE.matcher(where);
+        Long sprintId = sprint.find() ? Long.parseLong(sprint.group(1)) : null;
+        Matcher keyIn = KEY_IN_CLAUSE.matcher(where);
+        Set<String> keys = keyIn.find() ? new HashSet<>(Arrays.asList(keyIn.group(1).split("\\s*,\\s*"))) : null;
+        Matcher lower = KEY_LOWER_BOUND.matcher(where);
+        String lowerBound = lower.find() ? lower.group(1) : null;
+        Matcher upper = KEY_UPPER_BOUND.matcher(where);
+        String upperBound = upper.find() ? upper.group(1) : null;
+
+        List<ObjectNode> matches = new ArrayList<>();
+        for (ObjectNode issue : issuesByKey) {
+            String key = issue.path("key").asText();
+            if ((sprintId == null || sprintMembership.get(key).contains(sprintId))
+                    && (keys == null || keys.contains(key))
+                    && (lowerBound == null || KEY_ORDER.compare(key, lowerBound) >= 0)
+                    && (upperBound == null || KEY_ORDER.compare(key, upperBound) < 0)) {
+                matches.add(issue);
+            }
+        }
+        if (descending) {
+            Collections.reverse(matches);
+        }
+        return matches;
+    }
+
+    private ObjectNode render(ObjectNode issue, Set<String> fields, boolean expandChangelog) {
+        ObjectNode rendered = objectMapper.createObjectNode();
+        rendered.set("id", issue.get("id"));
+        rendered.set("key", issue.get("key"));
+        if (fields.contains("*all")) {
+            rendered.set("fields", issue.get("fields"));
+        } else {
+            ObjectNode selected = rendered.putObject("fields");
+            fields.forEach(field -> {
+                if (issue.path("fields").has(field)) {
+                    selected.set(field, issue.path("fields").get(field));
+                }
+            });
+        }
+        if (expandChangelog) {
+            JsonNode histories = issue.path("changelog").path("histories");
+            ObjectNode changelog = rendered.putObject("changelog");
+            ArrayNode embedded = changelog.putArray("histories");
+            for (int i = 0; i < Math.min(histories.size(), options.maxEmbeddedHistories()); i++) {
+                embedded.add(histories.get(i));
+            }
+            changelog.put("startAt", 0);
+            changelog.put("maxResults", embedded.size());
+            changelog.put("total", histories.size());
+        }
+        return rendered;
+    }
+
+    private void respond(HttpExchange exchange, JsonNode body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            // Compressed up front so the response has a fixed length rather than chunked encoding
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (OutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private synchronized boolean injectRateLimit() {
+        return options.rateLimitProbability() > 0 && random.nextDouble() < options.rateLimitProbability();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static String encodeToken(int offset) {
+        return Base64.getUrlEncoder().encodeToString(("offset:" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeToken(String token) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        return Integer.parseInt(decoded.substring("offset:".length()));
+    }
+
+    private static void sleep(Duration latency) {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.metrics.service.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyRangePartitionerTest {
+
+    @Test
+    void testPartitionCountAdaptsToIssueCount() {
+        assertThat(KeyRangePartitioner.partitionCount(120, 8)).isEqualTo(1);
+        assertThat(KeyRangePartitioner.partitionCount(1200, 8)).isEqualTo(3);
+        assertThat(KeyRangePartitioner.partitionCount(50000, 8)).isEqualTo(8);
+    }
+
+    @Test
+    void testPartitionProducesDisjointOpenEndedRanges() {
+        List<String> ranges = KeyRangePartitioner.partition("Sprint = 42", "CMS-100", "CMS-1099", 2);
+
+        assertThat(ranges).containsExactly(
+                "(Sprint = 42) AND key < CMS-600",
+                "(Sprint = 42) AND key >= CMS-600");
+    }
+
+    @Test
+    void testPartitionMiddleRangesHaveBothBounds() {
+        List<String> ranges = KeyRangePartitioner.partition("Sprint = 42", "CMS-1", "CMS-9", 3);
+
+        assertThat(ranges).containsExactly(
+                "(Sprint = 42) AND key < CMS-4",
+                "(Sprint = 42) AND key >= CMS-4 AND key < CMS-7",
+                "(Sprint = 42) AND key >= CMS-7");
+    }
+
+    @Test
+    void testPartitionLeavesMixedProjectQueriesUnsplit() {
+        List<String> ranges = KeyRangePartitioner.partition("Sprint = 42", "ABC-1", "CMS-900", 4);
+
+        assertThat(ranges).containsExactly("Sprint = 42");
+    }
+
+    @Test
+    void testAfterSkipsKeysAlreadyFetched() {
+        assertThat(KeyRangePartitioner.after("(Sprint = 42) AND key < CMS-600", "CMS-199"))
+                .isEqualTo("(Sprint = 42) AND key < CMS-600 AND key >= CMS-200");
+        assertThat(KeyRangePartitioner.after("(Sprint = 42) AND key < CMS-600", null))
+                .isEqualTo("(Sprint = 42) AND key < CMS-600");
+    }
+}
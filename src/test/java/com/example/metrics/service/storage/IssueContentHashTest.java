@@ -0,0 +1,54 @@
+package com.example.metrics.service.storage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IssueContentHashTest {
+
+    private static final String ISSUE = "{\"key\":\"CMS-1\",\"fields\":{"
+        + "\"status\":{\"name\":\"Done\",\"id\":\"3\"},"
+        + "\"labels\":[\"qa\",\"backend\"],"
+        + "\"storyPoints\":5}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testHashIgnoresFieldOrder() throws IOException {
+        JsonNode reordered = objectMapper.readTree("{\"fields\":{"
+            + "\"storyPoints\":5,"
+            + "\"labels\":[\"qa\",\"backend\"],"
+            + "\"status\":{\"id\":\"3\",\"name\":\"Done\"}},"
+            + "\"key\":\"CMS-1\"}");
+
+        assertThat(IssueContentHash.of(reordered)).isEqualTo(IssueContentHash.of(objectMapper.readTree(ISSUE)));
+    }
+
+    @Test
+    void testHashChangesWithContent() throws IOException {
+        String hash = IssueContentHash.of(objectMapper.readTree(ISSUE));
+
+        assertThat(hash).hasSize(32).matches("[0-9a-f]+");
+        assertThat(IssueContentHash.of(objectMapper.readTree(ISSUE.replace("Done", "In QA")))).isNotEqualTo(hash);
+        assertThat(IssueContentHash.of(objectMapper.readTree(ISSUE.replace("5", "8")))).isNotEqualTo(hash);
+        // Array order is content, unlike field order
+        assertThat(IssueContentHash.of(objectMapper.readTree(ISSUE.replace("\"qa\",\"backend\"", "\"backend\",\"qa\""))))
+            .isNotEqualTo(hash);
+    }
+
+    @Test
+    void testHashLeavesOutItsOwnField() throws IOException {
+        ObjectNode issue = (ObjectNode) objectMapper.readTree(ISSUE);
+        String hash = IssueContentHash.of(issue);
+
+        issue.put(IssueContentHash.FIELD, hash);
+        assertThat(IssueContentHash.of(issue)).isEqualTo(hash);
+        issue.put(IssueContentHash.FIELD, "stale");
+        assertThat(IssueContentHash.of(issue)).isEqualTo(hash);
+    }
+}
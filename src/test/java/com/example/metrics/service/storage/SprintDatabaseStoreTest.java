@@ -0,0 +1,118 @@
+package com.example.metrics.service.storage;
+
+import com.example.metrics.config.DatasetHistoryProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SprintDatabaseStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path dbFile = Path.of(SprintDatabaseStore.DATABASE_FILE);
+    private SprintDatabaseStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // The store writes tools/ relative to the working directory; never run in the project root
+        assertThat(Path.of("build.gradle.kts")).doesNotExist();
+        deleteRecursively(Path.of("tools"));
+        GenerationHistory history = new GenerationHistory(objectMapper, new DatasetHistoryProperties(4, 4));
+        store = new SprintDatabaseStore(objectMapper, history);
+    }
+
+    @Test
+    void testWrittenFileIsSealed() throws IOException {
+        store.replaceSprints(Map.of("1", issues("CMS-1", "CMS-2")));
+
+        DatabaseManifest manifest = store.getManifest();
+        assertThat(manifest.checksum()).startsWith("crc32c:");
+        assertThat(SealedJsonFile.verify(dbFile)).isEqualTo(manifest.checksum());
+        assertThat(manifest.totalIssues()).isEqualTo(2);
+        assertThat(dbFile.resolveSibling(dbFile.getFileName() + ".tmp")).doesNotExist();
+    }
+
+    @Test
+    void testTruncatedFileIsRejected() throws IOException {
+        store.replaceSprints(Map.of("1", issues("CMS-1", "CMS-2")));
+        DatabaseManifest before = store.getManifest();
+        byte[] sealed = Files.readAllBytes(dbFile);
+        FileTime modified = Files.getLastModifiedTime(dbFile);
+
+        corrupt(Arrays.copyOf(sealed, sealed.length / 2), modified);
+
+        assertThatThrownBy(store::getManifest).isInstanceOf(IOException.class);
+        assertPreviousManifestKept(before, sealed, modified);
+    }
+
+    @Test
+    void testFlippedByteIsRejected() throws IOException {
+        store.replaceSprints(Map.of("1", issues("CMS-1", "CMS-2")));
+        DatabaseManifest before = store.getManifest();
+        byte[] sealed = Files.readAllBytes(dbFile);
+        FileTime modified = Files.getLastModifiedTime(dbFile);
+
+        // Still valid JSON of the same size: only the checksum can tell
+        byte[] flipped = sealed.clone();
+        int key = new String(sealed, StandardCharsets.ISO_8859_1).indexOf("CMS-2");
+        flipped[key + 4] = '3';
+        corrupt(flipped, modified);
+
+        assertThatThrownBy(() -> SealedJsonFile.verify(dbFile))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("does not match seal");
+        assertThatThrownBy(store::getManifest).isInstanceOf(IOException.class);
+        assertThatThrownBy(store::getManifest).isInstanceOf(IOException.class);
+        assertPreviousManifestKept(before, sealed, modified);
+    }
+
+    /**
+     * Once the sealed bytes are back, the manifest read before the corruption is served again
+     * as it was, with no new generation.
+     */
+    private void assertPreviousManifestKept(DatabaseManifest before, byte[] sealed, FileTime modified)
+            throws IOException {
+        Files.write(dbFile, sealed);
+        Files.setLastModifiedTime(dbFile, modified);
+        assertThat(store.getManifest()).isSameAs(before);
+    }
+
+    private void corrupt(byte[] content, FileTime modified) throws IOException {
+        Files.write(dbFile, content);
+        Files.setLastModifiedTime(dbFile, FileTime.fromMillis(modified.toMillis() + 1000));
+    }
+
+    private SprintDatabaseStore.IssueStream issues(String... keys) {
+        return consumer -> {
+            for (String key : keys) {
+                JsonNode issue = objectMapper.readTree(
+                    "{\"key\":\"" + key + "\",\"fields\":{\"status\":{\"name\":\"Done\"}}}");
+                consumer.accept(issue);
+            }
+        };
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -1,7 +1,12 @@
 import java.io.*;
 import java.net.*;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -19,6 +24,12 @@ public class AddCompletedSprint {
     private static final String MASTER_DB_FILE = "jira-sprint-database.json";
 
     private static ObjectMapper mapper = new ObjectMapper();
+
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofSeconds(30))
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
     
     public static void main(String[] args) throws Exception {
         // Check if sprint ID was provided
@@ -55,7 +66,7 @@ public class AddCompletedSprint {
         System.out.println("");
 
         // Load existing master database
-        Map<String, Object> masterDb = loadMasterDatabase();
+        Map<String, Object> masterDb = SprintDatabaseFile.load(mapper);
         Map<String, Object> sprintsData = (Map<String, Object>) masterDb.getOrDefault("sprints", new HashMap<String, Object>());
 
         System.out.println("📊 Current database status:");
@@ -117,14 +128,9 @@ public class AddCompletedSprint {
         sprintData.put("sprintName", sprintName);
         sprintData.put("sprintState", sprintState);
 
-        // Add to database
+        // Add to database and save
         sprintsData.put(sprintId, sprintData);
-        masterDb.put("sprints", sprintsData);
-        masterDb.put("lastUpdated", LocalDateTime.now().toString());
-        masterDb.put("totalSprints", sprintsData.size());
-
-        // Save database
-        saveMasterDatabase(masterDb);
+        SprintDatabaseFile.saveSprints(mapper, Map.of(sprintId, sprintData));
 
         System.out.println("");
         System.out.println("=".repeat(50));
@@ -136,3 +142,79 @@ public class AddCompletedSprint {
         System.out.println("📁 Database file: " + MASTER_DB_FILE);
     }
 
+    private static JsonNode getSprintInfo(String sprintId, String cookieHeader) throws Exception {
+        return makeRequest(SPRINT_API_URL + sprintId, cookieHeader);
+    }
+
+    private static Map<String, Object> fetchSprintData(String sprintId, String cookieHeader) throws Exception {
+        List<JsonNode> allIssues = new ArrayList<>();
+
+        String jql = "Sprint = " + sprintId;
+        String nextPageToken = null;
+        boolean isLast = false;
+
+        do {
+            String url = BASE_URL + "?jql=" + URLEncoder.encode(jql, StandardCharsets.UTF_8) +
+                        "&expand=changelog" +
+                        "&fields=*all" +
+                        "&maxResults=" + MAX_RESULTS;
+
+            if (nextPageToken != null) {
+                url += "&nextPageToken=" + URLEncoder.encode(nextPageToken, StandardCharsets.UTF_8);
+            }
+
+            JsonNode response = makeRequest(url, cookieHeader);
+
+            if (response == null) break;
+
+            isLast = response.path("isLast").asBoolean(true);
+            JsonNode issues = response.get("issues");
+
+            if (issues != null && issues.isArray()) {
+                for (JsonNode issue : issues) {
+                    allIssues.add(issue);
+                }
+            }
+
+            // Get next page token
+            JsonNode nextToken = response.get("nextPageToken");
+            nextPageToken = (nextToken != null && !nextToken.isNull()) ? nextToken.asText() : null;
+
+            System.out.println("   Fetched " + allIssues.size() + " issues...");
+
+        } while (!isLast && nextPageToken != null);
+
+        // Build sprint data object
+        Map<String, Object> sprintData = new HashMap<>();
+        sprintData.put("sprintId", sprintId);
+        sprintData.put("fetchedAt", LocalDateTime.now().toString());
+        sprintData.put("totalIssues", allIssues.size());
+        sprintData.put("issues", allIssues);
+
+        System.out.println("   ✅ Fetched " + allIssues.size() + " issues for sprint " + sprintId);
+        return sprintData;
+    }
+
+    private static JsonNode makeRequest(String url, String cookieHeader) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofSeconds(60))
+            .header("Cookie", cookieHeader)
+            .header("Accept", "application/json")
+            .header("Accept-Encoding", "gzip")
+            .GET()
+            .build();
+
+        HttpResponse<InputStream> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() >= 400) {
+                System.err.println("❌ HTTP Error " + response.statusCode());
+                return null;
+            }
+
+            boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+            return mapper.readTree(gzip ? new GZIPInputStream(body, 64 * 1024) : body);
+        }
+    }
+}
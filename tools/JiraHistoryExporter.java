@@ -1,14 +1,19 @@
 import java.io.*;
 import java.net.*;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class JiraHistoryExporter {
 
     private static final String BASE_URL =
-            "https://gspcloud.atlassian.net/rest/api/3/search/jql";
+            System.getenv().getOrDefault("JIRA_BASE_URL", "https://gspcloud.atlassian.net") + "/rest/api/3/search/jql";
 
     // Your JQL - using literal brackets as they work in browser
     // Note: Jira accepts literal [ ] in the Team[Team] field name
@@ -19,6 +24,13 @@ public class JiraHistoryExporter {
     private static final String OUTPUT_FILE = "jira-export-" +
             LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HHmmss")) + ".json";
 
+    // Shared client: keeps connections alive between pages and negotiates HTTP/2 when available
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(30))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
     public static void main(String[] args) throws Exception {
         // Read session credentials from environment variables
         String jsessionId = System.getenv("JIRA_JSESSIONID");
@@ -62,30 +74,34 @@ public class JiraHistoryExporter {
 
             System.out.println("📥 Fetching page " + page + "...");
             System.out.println("   URL: " + url);
-            HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-            conn.setRequestMethod("GET");
-
-            // Add authentication cookies
-            conn.setRequestProperty("Cookie", cookieHeader);
-            conn.setRequestProperty("Accept", "application/json");
-
-            int status = conn.getResponseCode();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(60))
+                    // Add authentication cookies
+                    .header("Cookie", cookieHeader)
+                    .header("Accept", "application/json")
+                    .header("Accept-Encoding", "gzip")
+                    .GET()
+                    .build();
+
+            HttpResponse<InputStream> httpResponse = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            boolean gzip = httpResponse.headers().firstValue("Content-Encoding")
+                    .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                    .orElse(false);
+            InputStream is = gzip ? new GZIPInputStream(httpResponse.body(), 64 * 1024) : httpResponse.body();
+
+            int status = httpResponse.statusCode();
             if (status >= 400) {
                 System.err.println("❌ HTTP Error " + status);
-                InputStream errorStream = conn.getErrorStream();
-                if (errorStream != null) {
-                    BufferedReader errorReader = new BufferedReader(new InputStreamReader(errorStream));
-                    String errorLine;
-                    while ((errorLine = errorReader.readLine()) != null) {
-                        System.err.println(errorLine);
-                    }
-                    errorReader.close();
+                BufferedReader errorReader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+                String errorLine;
+                while ((errorLine = errorReader.readLine()) != null) {
+                    System.err.println(errorLine);
                 }
+                errorReader.close();
                 System.exit(1);
             }
 
-            InputStream is = conn.getInputStream();
-            BufferedReader in = new BufferedReader(new InputStreamReader(is));
+            BufferedReader in = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
             StringBuilder response = new StringBuilder();
             String line;
             while ((line = in.readLine()) != null) {
@@ -1,7 +1,12 @@
 import java.io.*;
 import java.net.*;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -12,7 +17,8 @@ import com.fasterxml.jackson.databind.JsonNode;
  */
 public class SprintDataFetcher {
 
-    private static final String BASE_URL = "https://gspcloud.atlassian.net/rest/api/3/search/jql";
+    private static final String BASE_URL =
+            System.getenv().getOrDefault("JIRA_BASE_URL", "https://gspcloud.atlassian.net") + "/rest/api/3/search/jql";
     private static final String TEAM_ID = "8cd48340-f038-4a23-8787-2489ff459cf0";
     private static final String PROJECT = "GPE Discovery Engineering CMS";
     private static final int MAX_RESULTS = 100;
@@ -20,6 +26,13 @@ public class SprintDataFetcher {
     private static final String MASTER_DB_FILE = "jira-sprint-database.json";
 
     private static ObjectMapper mapper = new ObjectMapper();
+
+    // Shared client: keeps connections alive between pages and negotiates HTTP/2 when available
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofSeconds(30))
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
     
     public static void main(String[] args) throws Exception {
         // Read session credentials
@@ -77,14 +90,9 @@ public class SprintDataFetcher {
             System.out.println("\n📦 Fetching sprint " + sprintId + "...");
             Map<String, Object> sprintData = fetchSprintData(sprintId, cookieHeader);
 
-            // Add to master database
+            // Add to master database, saving after each sprint (incremental save)
             sprintsData.put(sprintId, sprintData);
-            masterDb.put("sprints", sprintsData);
-            masterDb.put("lastUpdated", LocalDateTime.now().toString());
-            masterDb.put("totalSprints", sprintsData.size());
-
-            // Save after each sprint (incremental save)
-            saveMasterDatabase(masterDb);
+            saveSprint(sprintId, sprintData);
             completed++;
 
             System.out.println("✅ Sprint " + sprintId + " saved to master database");
@@ -199,59 +207,41 @@ public class SprintDataFetcher {
     }
 
     private static JsonNode makeRequest(String url, String cookieHeader) throws Exception {
-        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Cookie", cookieHeader);
-        conn.setRequestProperty("Accept", "application/json");
-
-        int status = conn.getResponseCode();
-        if (status >= 400) {
-            System.err.println("❌ HTTP Error " + status);
-            return null;
-        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofSeconds(60))
+            .header("Cookie", cookieHeader)
+            .header("Accept", "application/json")
+            .header("Accept-Encoding", "gzip")
+            .GET()
+            .build();
+
+        HttpResponse<InputStream> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() >= 400) {
+                System.err.println("❌ HTTP Error " + response.statusCode());
+                return null;
+            }
 
-        // Read response
-        BufferedReader reader = new BufferedReader(
-            new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8));
-        StringBuilder response = new StringBuilder();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            response.append(line);
+            // Decompress while parsing instead of buffering the page as text
+            boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+            return mapper.readTree(gzip ? new GZIPInputStream(body, 64 * 1024) : body);
         }
-        reader.close();
-
-        return mapper.readTree(response.toString());
     }
 
-    private static Map<String, Object> loadMasterDatabase() {
-        File dbFile = new File(MASTER_DB_FILE);
-        if (!dbFile.exists()) {
-            System.out.println("📝 Creating new master database...");
-            Map<String, Object> newDb = new HashMap<>();
-            newDb.put("created", LocalDateTime.now().toString());
-            newDb.put("sprints", new HashMap<String, Object>());
-            newDb.put("totalSprints", 0);
-            return newDb;
-        }
-
-        try {
+    private static Map<String, Object> loadMasterDatabase() throws IOException {
+        if (new File(MASTER_DB_FILE).exists()) {
             System.out.println("📂 Loading existing master database...");
-            return mapper.readValue(dbFile,
-                mapper.getTypeFactory().constructMapType(HashMap.class, String.class, Object.class));
-        } catch (Exception e) {
-            System.err.println("⚠️ Could not load master database: " + e.getMessage());
-            System.err.println("   Creating new database...");
-            Map<String, Object> newDb = new HashMap<>();
-            newDb.put("created", LocalDateTime.now().toString());
-            newDb.put("sprints", new HashMap<String, Object>());
-            newDb.put("totalSprints", 0);
-            return newDb;
+        } else {
+            System.out.println("📝 Creating new master database...");
         }
+        return SprintDatabaseFile.load(mapper);
     }
 
-    private static void saveMasterDatabase(Map<String, Object> masterDb) {
+    private static void saveSprint(String sprintId, Map<String, Object> sprintData) {
         try {
-            mapper.writerWithDefaultPrettyPrinter().writeValue(new File(MASTER_DB_FILE), masterDb);
+            SprintDatabaseFile.saveSprints(mapper, Map.of(sprintId, sprintData));
             System.out.println("   💾 Master database updated");
         } catch (Exception e) {
             System.err.println("⚠️ Could not save master database: " + e.getMessage());
@@ -0,0 +1,154 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+import java.time.LocalDateTime;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Shared access to the sprint master database for the command-line tools.
+ *
+ * Uses the same protocol as the server (SprintDatabaseStore / SealedJsonFile), so the tools can run
+ * next to a busy server:
+ *   - writers hold an exclusive lock on jira-sprint-database.json.lock,
+ *   - re-read the database under the lock and apply only their own sprints,
+ *   - write a temp file, seal it with a trailing "checksum" field (CRC32C of every byte before it),
+ *     fsync it and rename it over the database.
+ */
+public final class SprintDatabaseFile {
+
+    static final String MASTER_DB_FILE = "jira-sprint-database.json";
+
+    private static final Pattern SEAL = Pattern.compile("\"checksum\"\\s*:\\s*\"crc32c:([0-9a-f]{8})\"\\s*}\\s*$");
+    private static final int TAIL_BYTES = 256;
+
+    private SprintDatabaseFile() {
+    }
+
+    /**
+     * Load the master database, or an empty one if it does not exist yet.
+     *
+     * @throws IOException if the database is torn or otherwise does not match its checksum
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> load(ObjectMapper mapper) throws IOException {
+        Path dbFile = Path.of(MASTER_DB_FILE);
+        if (!Files.exists(dbFile)) {
+            Map<String, Object> newDb = new LinkedHashMap<>();
+            newDb.put("created", LocalDateTime.now().toString());
+            newDb.put("sprints", new LinkedHashMap<String, Object>());
+            newDb.put("totalSprints", 0);
+            return newDb;
+        }
+        verify(dbFile);
+        Map<String, Object> db = mapper.readValue(dbFile.toFile(),
+            mapper.getTypeFactory().constructMapType(LinkedHashMap.class, String.class, Object.class));
+        db.remove("checksum");
+        return db;
+    }
+
+    /**
+     * Add or replace sprints in the master database.
+     * The database is re-read under the lock, so sprints written meanwhile by the server or another tool are kept.
+     */
+    @SuppressWarnings("unchecked")
+    static void saveSprints(ObjectMapper mapper, Map<String, Object> sprints) throws IOException {
+        Path dbFile = Path.of(MASTER_DB_FILE).toAbsolutePath();
+        Path lockFile = dbFile.resolveSibling(dbFile.getFileName() + ".lock");
+        Path tempFile = dbFile.resolveSibling(dbFile.getFileName() + ".tmp");
+
+        try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = lockChannel.lock()) {
+            Map<String, Object> db = load(mapper);
+            Map<String, Object> sprintsData = (Map<String, Object>) db.computeIfAbsent("sprints", k -> new LinkedHashMap<>());
+            sprintsData.putAll(sprints);
+            db.put("totalSprints", sprintsData.size());
+            db.put("lastUpdated", LocalDateTime.now().toString());
+
+            mapper.writerWithDefaultPrettyPrinter().writeValue(tempFile.toFile(), db);
+            seal(tempFile);
+            Files.move(tempFile, dbFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            try (FileChannel dir = FileChannel.open(dbFile.getParent(), StandardOpenOption.READ)) {
+                dir.force(true);
+            } catch (IOException e) {
+                // Not every platform can sync a directory; the rename itself is still atomic
+            }
+        }
+    }
+
+    private static void seal(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            String tail = readTail(channel);
+            long tailStart = channel.size() - tail.length();
+            int close = tail.lastIndexOf('}');
+            int contentEnd = close - 1;
+            while (contentEnd >= 0 && Character.isWhitespace(tail.charAt(contentEnd))) {
+                contentEnd--;
+            }
+            if (close < 0 || contentEnd < 0) {
+                throw new IOException("Cannot seal " + file + ": not a JSON object");
+            }
+            long prefixLength = tailStart + contentEnd + 1;
+            String separator = tail.charAt(contentEnd) == '{' ? "\n  " : ",\n  ";
+
+            CRC32C crc = checksumPrefix(channel, prefixLength);
+            crc.update(separator.getBytes(StandardCharsets.UTF_8));
+            String seal = separator + "\"checksum\" : \"" + String.format("crc32c:%08x", crc.getValue()) + "\"\n}\n";
+
+            channel.truncate(prefixLength);
+            channel.write(ByteBuffer.wrap(seal.getBytes(StandardCharsets.UTF_8)), prefixLength);
+            channel.force(true);
+        }
+    }
+
+    private static void verify(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            String tail = readTail(channel);
+            Matcher seal = SEAL.matcher(tail);
+            if (!seal.find()) {
+                return; // written before sealing was introduced
+            }
+            long prefixLength = channel.size() - tail.length() + tail.lastIndexOf("\"checksum\"");
+            String actual = String.format("%08x", checksumPrefix(channel, prefixLength).getValue());
+            if (!actual.equals(seal.group(1))) {
+                throw new IOException("Corrupt " + file + ": checksum crc32c:" + actual
+                    + " does not match seal crc32c:" + seal.group(1));
+            }
+        }
+    }
+
+    private static String readTail(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int length = (int) Math.min(size, TAIL_BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining() && channel.read(buffer, size - length + buffer.position()) >= 0) {
+            // keep reading
+        }
+        // One char per byte, so string offsets are byte offsets
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static CRC32C checksumPrefix(FileChannel channel, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        long position = 0;
+        while (position < length) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), length - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("File shrank while computing checksum");
+            }
+            buffer.flip();
+            crc.update(buffer);
+            position += read;
+        }
+        return crc;
+    }
+}
@@ -1,7 +1,12 @@
 import java.io.*;
 import java.net.*;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -21,6 +26,12 @@ public class UpdateCurrentSprint {
     private static final String MASTER_DB_FILE = "jira-sprint-database.json";
 
     private static ObjectMapper mapper = new ObjectMapper();
+
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofSeconds(30))
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
     
     public static void main(String[] args) throws Exception {
         // Read session credentials
@@ -42,7 +53,7 @@ public class UpdateCurrentSprint {
         System.out.println("=".repeat(50));
 
         // Load existing master database
-        Map<String, Object> masterDb = loadMasterDatabase();
+        Map<String, Object> masterDb = SprintDatabaseFile.load(mapper);
         Map<String, Object> sprintsData = (Map<String, Object>) masterDb.getOrDefault("sprints", new HashMap<String, Object>());
 
         System.out.println("📊 Current database status:");
@@ -62,6 +73,7 @@ public class UpdateCurrentSprint {
         // Step 2: Re-fetch active sprints
         System.out.println("\n🔄 Step 2: Updating active sprint data...");
         int updated = 0;
+        Map<String, Object> updatedSprints = new LinkedHashMap<>();
 
         for (String sprintId : activeSprintIds) {
             System.out.println("\n📦 Updating sprint " + sprintId + "...");
@@ -79,14 +91,12 @@ public class UpdateCurrentSprint {
             System.out.println("   Delta: " + (newIssueCount - oldIssueCount));
             
             // Update in database
-            sprintsData.put(sprintId, freshSprintData);
+            updatedSprints.put(sprintId, freshSprintData);
             updated++;
         }
 
         // Step 3: Save updated database
-        masterDb.put("sprints", sprintsData);
-        masterDb.put("lastUpdated", LocalDateTime.now().toString());
-        saveMasterDatabase(masterDb);
+        SprintDatabaseFile.saveSprints(mapper, updatedSprints);
 
         System.out.println("\n" + "=".repeat(50));
         System.out.println("🎉 Update complete!");
@@ -143,4 +153,53 @@ public class UpdateCurrentSprint {
             if (response == null) break;
 
             isLast = response.path("isLast").asBoolean(true);
+            JsonNode issues = response.get("issues");
+
+            if (issues != null && issues.isArray()) {
+                for (JsonNode issue : issues) {
+                    allIssues.add(issue);
+                }
+            }
+
+            // Get next page token
+            JsonNode nextToken = response.get("nextPageToken");
+            nextPageToken = (nextToken != null && !nextToken.isNull()) ? nextToken.asText() : null;
+
+            System.out.println("   Fetched " + allIssues.size() + " issues...");
+
+        } while (!isLast && nextPageToken != null);
 
+        // Build sprint data object
+        Map<String, Object> sprintData = new HashMap<>();
+        sprintData.put("sprintId", sprintId);
+        sprintData.put("fetchedAt", LocalDateTime.now().toString());
+        sprintData.put("totalIssues", allIssues.size());
+        sprintData.put("issues", allIssues);
+
+        System.out.println("   ✅ Fetched " + allIssues.size() + " issues for sprint " + sprintId);
+        return sprintData;
+    }
+
+    private static JsonNode makeRequest(String url, String cookieHeader) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofSeconds(60))
+            .header("Cookie", cookieHeader)
+            .header("Accept", "application/json")
+            .header("Accept-Encoding", "gzip")
+            .GET()
+            .build();
+
+        HttpResponse<InputStream> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() >= 400) {
+                System.err.println("❌ HTTP Error " + response.statusCode());
+                return null;
+            }
+
+            boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+            return mapper.readTree(gzip ? new GZIPInputStream(body, 64 * 1024) : body);
+        }
+    }
+}
@@ -17,7 +17,7 @@ SPRINT_ID=$1
 source .jira-session
 
 # Compile
-javac -cp "jackson-core-2.18.2.jar:jackson-databind-2.18.2.jar:jackson-annotations-2.18.2.jar" AddCompletedSprint.java
+javac -cp ".:jackson-core-2.18.2.jar:jackson-databind-2.18.2.jar:jackson-annotations-2.18.2.jar" AddCompletedSprint.java
 
 # Run
 java -cp ".:jackson-core-2.18.2.jar:jackson-databind-2.18.2.jar:jackson-annotations-2.18.2.jar" AddCompletedSprint "$SPRINT_ID"
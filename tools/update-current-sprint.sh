@@ -19,7 +19,7 @@ source .jira-session
 
 # Compile
 echo "🔨 Compiling..."
-javac -cp "jackson-core-2.18.2.jar:jackson-databind-2.18.2.jar:jackson-annotations-2.18.2.jar" UpdateCurrentSprint.java
+javac -cp ".:jackson-core-2.18.2.jar:jackson-databind-2.18.2.jar:jackson-annotations-2.18.2.jar" UpdateCurrentSprint.java
 
 # Run
 echo "🚀 Running delta update..."